@@ -0,0 +1,105 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.teamcode.all_purpose.processors.ColorDetectionPipeline;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import nu.pattern.OpenCV;
+
+/**
+ * ColorDetectionProcessor.processFrame(), minus the SDK and profiler, on desktop OpenCV.<br><br>
+ *
+ * Frames are read from the directory in the "benchmarks.frames" system property
+ * (Benchmarks/frames by default), resized to 640x480 and converted to RGB like the
+ * VisionPortal does. With no frames there, a synthetic one is used instead.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ColorDetectionBenchmark {
+    private static final Size FRAME_SIZE = new Size(640, 480);
+
+    private final ColorDetectionPipeline pipeline = new ColorDetectionPipeline();
+    private final List<Mat> frames = new ArrayList<>();
+    private final Point location = new Point();
+    private int index;
+
+    @Setup
+    public void setup() {
+        OpenCV.loadLocally();
+
+        File[] files = new File(System.getProperty("benchmarks.frames", "frames")).listFiles();
+        if (files != null) {
+            Arrays.sort(files);
+            for (File file : files) {
+                String name = file.getName().toLowerCase();
+                if (name.endsWith(".png") || name.endsWith(".jpg") || name.endsWith(".jpeg"))
+                    addFrame(Imgcodecs.imread(file.getAbsolutePath()));
+            }
+        }
+
+        if (frames.isEmpty())
+            frames.add(syntheticFrame());
+    }
+
+    private void addFrame(Mat bgr) {
+        if (bgr.empty())
+            return;
+
+        Mat rgb = new Mat();
+        Imgproc.resize(bgr, rgb, FRAME_SIZE);
+        Imgproc.cvtColor(rgb, rgb, Imgproc.COLOR_BGR2RGB);
+        bgr.release();
+        frames.add(rgb);
+    }
+
+    /** A white blob slightly right of center, on a grey mat */
+    private static Mat syntheticFrame() {
+        Mat frame = new Mat(FRAME_SIZE, CvType.CV_8UC3, new Scalar(90, 90, 90));
+        Imgproc.circle(frame, new Point(380, 260), 45, new Scalar(245, 245, 245), -1);
+        return frame;
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (Mat frame : frames)
+            frame.release();
+    }
+
+    /** The whole processFrame() */
+    @Benchmark
+    public Point processFrame() {
+        Mat frame = frames.get(index);
+        index = (index + 1) % frames.size();
+
+        pipeline.toHsv(frame);
+        pipeline.mask();
+        pipeline.cleanUp();
+
+        MatOfPoint largestContour = pipeline.findLargestContour();
+        if (largestContour != null)
+            ColorDetectionPipeline.locate(largestContour, location);
+
+        return location;
+    }
+}
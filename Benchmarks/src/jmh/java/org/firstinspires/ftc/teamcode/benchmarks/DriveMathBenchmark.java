@@ -0,0 +1,126 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.teamcode.all_purpose.control.AxisShaper;
+import org.firstinspires.ftc.teamcode.all_purpose.control.MecanumMixer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-loop drive math of the TeleOp, against the old versions (see {@link LegacyDriveMath}):
+ * <pre>
+ *   easeWithCubic        - The old joystick curve (Math.pow), for comparison
+ *   axisShaper           - One joystick axis (deadband, lookup table, slew limit)
+ *   mixMecanum           - The old polar mixing (atan2, hypot, sin, cos), for comparison
+ *   mecanumMixer         - The mixing alone, as HumanOperated.useDefaultMovementControls() does it
+ *   easeAndMixMecanum    - One old TeleOp loop's drive math, for comparison
+ *   easeAndMecanumMixer  - The old curve with the new mixer, to split the gain between the two
+ *   shapeAndMecanumMixer - One TeleOp loop's drive math now (three AxisShapers + MecanumMixer)
+ * </pre>
+ *
+ * The Autonomous drives follow precomputed motion profiles, see TrajectoryCacheBenchmark.
+ *
+ * The inputs cycle through a table of recorded-like (random, fixed seed) stick values,
+ * so the JIT can't constant-fold them away.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DriveMathBenchmark {
+    private static final int INPUT_COUNT = 1024; // Power of two, for the & mask
+
+    private final double[] sticks = new double[INPUT_COUNT * 3];
+    private final double[] wheelPowers = new double[4];
+    private final AxisShaper shaper = new AxisShaper().setDeadband(0.05).setExpo(1).setSlewRate(4, 8);
+    private final AxisShaper driveShaper = new AxisShaper().setDeadband(0.05).setExpo(0.8).setSlewRate(3.5, 7);
+    private final AxisShaper strafeShaper = new AxisShaper().setDeadband(0.05).setExpo(0.8).setSlewRate(3.0, 6);
+    private final AxisShaper rotateShaper = new AxisShaper().setDeadband(0.05).setExpo(1.0).setSlewRate(5.0, 10);
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        for (int i = 0; i < sticks.length; i++)
+            sticks[i] = random.nextDouble() * 2 - 1;
+    }
+
+    private int next() {
+        index = (index + 1) & (INPUT_COUNT - 1);
+        return index;
+    }
+
+    @Benchmark
+    public double easeWithCubic() {
+        return LegacyDriveMath.easeWithCubic(sticks[next()]);
+    }
+
+    @Benchmark
+    public double axisShaper() {
+        return shaper.update(sticks[next()], 0.01);
+    }
+
+    @Benchmark
+    public void mixMecanum(Blackhole blackhole) {
+        int i = next() * 3;
+        LegacyDriveMath.mixMecanum(sticks[i], sticks[i + 1], sticks[i + 2], wheelPowers);
+        blackhole.consume(wheelPowers);
+    }
+
+    @Benchmark
+    public void mecanumMixer(Blackhole blackhole) {
+        int i = next() * 3;
+        MecanumMixer.mix(sticks[i], sticks[i + 1], sticks[i + 2], wheelPowers);
+        blackhole.consume(wheelPowers);
+    }
+
+    @Benchmark
+    public void mecanumMixerRotationFirst(Blackhole blackhole) {
+        int i = next() * 3;
+        MecanumMixer.mix(sticks[i], sticks[i + 1], sticks[i + 2], MecanumMixer.Normalization.ROTATION_FIRST, wheelPowers);
+        blackhole.consume(wheelPowers);
+    }
+
+    /** Easing all three axes + polar mixing, what one TeleOp loop used to do */
+    @Benchmark
+    public void easeAndMixMecanum(Blackhole blackhole) {
+        int i = next() * 3;
+        LegacyDriveMath.mixMecanum(
+                LegacyDriveMath.easeWithCubic(sticks[i]),
+                LegacyDriveMath.easeWithCubic(sticks[i + 1]),
+                LegacyDriveMath.easeWithCubic(sticks[i + 2]),
+                wheelPowers);
+        blackhole.consume(wheelPowers);
+    }
+
+    /** The old cubic easing with the new mixer, only the mixer changed from easeAndMixMecanum */
+    @Benchmark
+    public void easeAndMecanumMixer(Blackhole blackhole) {
+        int i = next() * 3;
+        MecanumMixer.mix(
+                LegacyDriveMath.easeWithCubic(sticks[i]),
+                LegacyDriveMath.easeWithCubic(sticks[i + 1]),
+                LegacyDriveMath.easeWithCubic(sticks[i + 2]),
+                wheelPowers);
+        blackhole.consume(wheelPowers);
+    }
+
+    /** Shaping all three axes + mixing, what one TeleOp loop does now */
+    @Benchmark
+    public void shapeAndMecanumMixer(Blackhole blackhole) {
+        int i = next() * 3;
+        MecanumMixer.mix(
+                driveShaper.update(sticks[i], 0.01),
+                strafeShaper.update(sticks[i + 1], 0.01),
+                rotateShaper.update(sticks[i + 2], 0.01),
+                wheelPowers);
+        blackhole.consume(wheelPowers);
+    }
+}
@@ -0,0 +1,52 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.teamcode.all_purpose.hardware.DriveMotors;
+
+/**
+ * The TeleOp drive math from before AxisShaper and MecanumMixer, kept here (not in the
+ * robot code) only as the baseline of {@link DriveMathBenchmark}. Don't drive with it.
+ */
+final class LegacyDriveMath {
+    private LegacyDriveMath() {}
+
+    /** The old joystick curve, superseded by AxisShaper */
+    static double easeWithCubic(double value) {
+        return Math.pow(value, 3);
+    }
+
+    /**
+     * Turns the (already eased) joystick values into the four wheel powers.
+     * Superseded by {@link org.firstinspires.ftc.teamcode.all_purpose.control.MecanumMixer},
+     * which skips the polar round trip and normalizes by the largest wheel (this one divides
+     * by power + rotate, signed, so it saturates wrong when turning left).
+     * @param drive  Forward +
+     * @param strafe Right +
+     * @param rotate Clockwise +
+     * @param wheelPowers Written to, in the {@link DriveMotors#FRONT_LEFT} .. {@link DriveMotors#BACK_RIGHT} order
+     */
+    static void mixMecanum(double drive, double strafe, double rotate, double[] wheelPowers) {
+        double heading = Math.atan2(drive, strafe);
+        double power = Math.hypot(strafe, drive);
+
+        double sin = Math.sin(heading - Math.PI / 4);
+        double cos = Math.cos(heading - Math.PI / 4);
+        double max = Math.max(Math.abs(sin), Math.abs(cos));
+
+        double frontLeft  = power * cos / max + rotate;
+        double frontRight = power * sin / max - rotate;
+        double backLeft   = power * sin / max + rotate;
+        double backRight  = power * cos / max - rotate;
+
+        if ((power + Math.abs(rotate)) > 1) {
+            frontLeft  /= power + rotate;
+            frontRight /= power + rotate;
+            backLeft   /= power + rotate;
+            backRight  /= power + rotate;
+        }
+
+        wheelPowers[DriveMotors.FRONT_LEFT]  = frontLeft;
+        wheelPowers[DriveMotors.FRONT_RIGHT] = frontRight;
+        wheelPowers[DriveMotors.BACK_LEFT]   = backLeft;
+        wheelPowers[DriveMotors.BACK_RIGHT]  = backRight;
+    }
+}
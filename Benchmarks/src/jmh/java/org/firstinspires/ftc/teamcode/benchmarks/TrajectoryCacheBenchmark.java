@@ -0,0 +1,85 @@
+package org.firstinspires.ftc.teamcode.benchmarks;
+
+import org.firstinspires.ftc.teamcode.all_purpose.RobotConstants;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.MotionProfile;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.SplinePath;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.TrajectoryCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generating a trajectory vs loading it back from the {@link TrajectoryCache}, what
+ * every autonomous init pays per step:
+ * <pre>
+ *   generate*  - MotionProfile.sCurve() / SplinePath.through(), no cache
+ *   load*      - The same trajectory, from a file written during setup (memory-mapped)
+ * </pre>
+ *
+ * The 1.2 m drive of BackParking and the path of LeftStartParking. Files are in a
+ * temporary directory, so this measures the page cache, not the disk: the robot's
+ * second init onwards, not the first one after a reboot.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TrajectoryCacheBenchmark {
+    private static final double DRIVE_METERS = 1.2;
+    private static final double[] WAYPOINTS = { 0, 0, 1.1, 0, 1.4, 0.3, 1.4, 2.6 };
+
+    private File directory;
+    private TrajectoryCache cache;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("trajectories").toFile();
+        cache = new TrajectoryCache(directory);
+        loadProfile(); // First calls generate and write the files
+        loadPath();
+    }
+
+    @TearDown
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null)
+            for (File file : files)
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+        //noinspection ResultOfMethodCallIgnored
+        directory.delete();
+    }
+
+    @Benchmark
+    public MotionProfile generateProfile() {
+        return MotionProfile.sCurve(DRIVE_METERS,
+                RobotConstants.MAX_DRIVE_VELOCITY, RobotConstants.MAX_DRIVE_ACCELERATION, RobotConstants.MAX_DRIVE_JERK);
+    }
+
+    @Benchmark
+    public MotionProfile loadProfile() {
+        return cache.sCurve(DRIVE_METERS,
+                RobotConstants.MAX_DRIVE_VELOCITY, RobotConstants.MAX_DRIVE_ACCELERATION, RobotConstants.MAX_DRIVE_JERK);
+    }
+
+    @Benchmark
+    public SplinePath generatePath() {
+        return SplinePath.through(RobotConstants.MAX_DRIVE_VELOCITY, RobotConstants.MAX_DRIVE_ACCELERATION,
+                RobotConstants.MAX_CENTRIPETAL_ACCELERATION, WAYPOINTS);
+    }
+
+    @Benchmark
+    public SplinePath loadPath() {
+        return cache.path(RobotConstants.MAX_DRIVE_VELOCITY, RobotConstants.MAX_DRIVE_ACCELERATION,
+                RobotConstants.MAX_CENTRIPETAL_ACCELERATION, WAYPOINTS);
+    }
+}
@@ -0,0 +1,219 @@
+package org.firstinspires.ftc.teamcode.tools;
+
+import org.firstinspires.ftc.teamcode.all_purpose.Misc;
+import org.firstinspires.ftc.teamcode.all_purpose.commands.CommandScheduler;
+import org.firstinspires.ftc.teamcode.all_purpose.control.ElbowArmController;
+import org.firstinspires.ftc.teamcode.all_purpose.hardware.SimulatedRobot;
+import org.firstinspires.ftc.teamcode.all_purpose.routines.CompiledRoutine;
+import org.firstinspires.ftc.teamcode.all_purpose.routines.Routine;
+import org.firstinspires.ftc.teamcode.all_purpose.routines.RoutineCompiler;
+import org.firstinspires.ftc.teamcode.all_purpose.sensors.HeadingService;
+import org.firstinspires.ftc.teamcode.all_purpose.sensors.SensorSampler;
+import org.firstinspires.ftc.teamcode.all_purpose.sensors.SensorSnapshot;
+import org.firstinspires.ftc.teamcode.all_purpose.sensors.SimulatedSensorSource;
+import org.firstinspires.ftc.teamcode.self_driving.Routines;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the robot logic against the simulated hardware on a computer, in real time,
+ * and fails if it got slower or less accurate than it should be:
+ *
+ * <pre>
+ *   ./gradlew :Benchmarks:simulate
+ * </pre>
+ *
+ * 1. Sensor sampling: a {@link SensorSampler} over a {@link SimulatedSensorSource} (with
+ *    the I2C read latency of the real IMU), polled by a control loop, while the robot
+ *    spins. How old the samples are when the loop reads them, and how far the
+ *    {@link HeadingService} (IMU + encoders) and the bare IMU sample are from the truth.
+ *
+ * 2. Autonomous loop: every routine in {@link Routines}, compiled and run on a
+ *    {@link SimulatedRobot} the way SelfDriving runs it. How long each cycle's work takes
+ *    (the commands and the arm, not the simulated physics), the loop period, and the
+ *    actual against the planned duration. The JIT warms up during the first routine,
+ *    so that's where the worst cycles are.
+ *
+ * Exits with an exception if any limit below is broken, so it can gate a change.
+ */
+public class SimulationHarness {
+    // Sensor sampling
+    private static final double SAMPLE_RATE_HZ = 100;           // As on the robot
+    private static final double IMU_READ_LATENCY_MS = 2;        // A BHI260AP read over I2C
+    private static final double SPIN_RADIANS_PER_SECOND = 2;
+    private static final double MAX_SAMPLE_AGE_MS = 25;         // Two periods and the read
+    private static final double MAX_FUSED_HEADING_ERROR_DEGREES = 0.5;
+    private static final int WARM_UP_POLLS = 5;
+
+    // Autonomous loop
+    private static final long LOOP_PERIOD_NANOS = 10_000_000;   // ~ a bulk-read cycle
+    private static final double MAX_WORK_P99_MS = 2;            // Per cycle, logic only
+    private static final double MAX_OVERRUN_SECONDS = 1;        // Actual - planned duration
+
+    private static final double LOOP_SECONDS = 3;
+
+    public static void main(String[] args) {
+        boolean passed = sampleSensors();
+        passed &= runRoutine("Back Parking", Routines.backParking());
+        passed &= runRoutine("Left Start Parking", Routines.leftStartParking());
+        passed &= runRoutine("Right Start Parking", Routines.rightStartParking());
+
+        if (!passed)
+            throw new IllegalStateException("Simulation out of limits, see above");
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Sensor Sampling
+    //------------------------------------------------------------------------------------------------
+    private static boolean sampleSensors() {
+        long start = System.nanoTime();
+        SimulatedSensorSource source = new SimulatedSensorSource(IMU_READ_LATENCY_MS) {
+            // The "robot", turning at a constant rate. The IMU sees the heading from when
+            // the read started, which is the sample's timestamp.
+            private double yaw;
+
+            @Override
+            public void refresh() {
+                yaw = Math.toDegrees(Misc.wrapRadians(spunRadians(start, System.nanoTime())));
+                super.refresh();
+            }
+
+            @Override
+            public double getYaw() {
+                return yaw;
+            }
+        };
+        SensorSampler sampler = new SensorSampler(source, SAMPLE_RATE_HZ);
+
+        // Counts per meter and turning radius only have to agree with the fake encoders below
+        double countsPerMeter = 1000, turningRadius = 0.3;
+        double radiansPerCount = 1 / (countsPerMeter * turningRadius);
+        HeadingService headingService = new HeadingService(sampler, countsPerMeter, turningRadius, 100);
+
+        sampler.start();
+
+        SensorSnapshot snapshot = new SensorSnapshot();
+        long[] ages = new long[(int) (LOOP_SECONDS * 1e9 / LOOP_PERIOD_NANOS)];
+        int count = 0;
+        double maxFusedError = 0, maxImuError = 0;
+        long next = System.nanoTime();
+
+        for (int i = 0; i < ages.length; i++) {
+            next += LOOP_PERIOD_NANOS;
+            LockSupport.parkNanos(next - System.nanoTime());
+
+            // Encoder yaw = (-FL + FR - BL + BR) / 4, exact, like a bulk read would be.
+            // Encoders keep counting, only the IMU wraps around.
+            long now = System.nanoTime();
+            double spun = spunRadians(start, now);
+            double heading = Misc.wrapRadians(spun);
+            int counts = (int) Math.round(spun / radiansPerCount);
+            headingService.update(-counts, counts, -counts, counts, now);
+
+            if (!sampler.read(snapshot))
+                continue;
+            ages[count++] = snapshot.getAgeNanos();
+
+            // Until the encoder history reaches back to a sample, the heading is the IMU's alone
+            if (i < WARM_UP_POLLS)
+                continue;
+            maxFusedError = Math.max(maxFusedError, angleBetween(headingService.getHeadingRadians(), heading));
+            maxImuError = Math.max(maxImuError, angleBetween(Math.toRadians(snapshot.getYaw()), heading));
+        }
+
+        sampler.stop();
+
+        Arrays.sort(ages, 0, count);
+        double p50 = count > 0 ? ages[count / 2] / 1e6 : Double.NaN;
+        double p99 = count > 0 ? ages[(int) (count * 0.99)] / 1e6 : Double.NaN;
+        double max = count > 0 ? ages[count - 1] / 1e6 : Double.NaN;
+        double fusedDegrees = Math.toDegrees(maxFusedError);
+
+        System.out.println("Sensor Sampling");
+        System.out.println(String.format(Locale.US,
+                "  %.0f Hz, %.1f ms reads, %d polls: sample age p50 %.2f ms, p99 %.2f ms, max %.2f ms",
+                SAMPLE_RATE_HZ, IMU_READ_LATENCY_MS, count, p50, p99, max));
+        System.out.println(String.format(Locale.US,
+                "  Spinning at %.1f rad/s, worst heading error: fused %.2f°, IMU sample alone %.2f°",
+                SPIN_RADIANS_PER_SECOND, fusedDegrees, Math.toDegrees(maxImuError)));
+
+        return check(count > 0, "no sample was ever read")
+                & check(max <= MAX_SAMPLE_AGE_MS, "sample age over " + MAX_SAMPLE_AGE_MS + " ms")
+                & check(fusedDegrees <= MAX_FUSED_HEADING_ERROR_DEGREES,
+                        "fused heading error over " + MAX_FUSED_HEADING_ERROR_DEGREES + "°");
+    }
+
+    private static double spunRadians(long startNanos, long nowNanos) {
+        return SPIN_RADIANS_PER_SECOND * (nowNanos - startNanos) * 1e-9;
+    }
+
+    private static double angleBetween(double a, double b) {
+        return Math.abs(Misc.wrapRadians(a - b));
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Autonomous Loop
+    //------------------------------------------------------------------------------------------------
+    private static boolean runRoutine(String name, Routine routine) {
+        SimulatedRobot robot = new SimulatedRobot(true);
+        robot.refresh();
+        ElbowArmController armController = new ElbowArmController(robot.arm());
+        CompiledRoutine compiled = RoutineCompiler.compile(routine, robot, armController);
+        double planned = compiled.getPlannedDuration();
+
+        CommandScheduler scheduler = new CommandScheduler();
+        scheduler.schedule(compiled);
+
+        long[] work = new long[(int) ((planned + MAX_OVERRUN_SECONDS + 1) * 1e9 / LOOP_PERIOD_NANOS)];
+        long[] periods = new long[work.length];
+        int cycles = 0;
+
+        long start = System.nanoTime();
+        long next = start, previous = start;
+        while (!scheduler.isIdle() && cycles < work.length) {
+            long cycleStart = System.nanoTime();
+            robot.refresh(); // The physics, not timed
+
+            long workStart = System.nanoTime();
+            scheduler.run();
+            armController.update();
+            work[cycles] = System.nanoTime() - workStart;
+
+            periods[cycles] = cycleStart - previous;
+            previous = cycleStart;
+            cycles++;
+
+            next += LOOP_PERIOD_NANOS;
+            LockSupport.parkNanos(next - System.nanoTime());
+        }
+        double actual = (System.nanoTime() - start) * 1e-9;
+        boolean finished = scheduler.isIdle();
+        scheduler.cancelAll();
+
+        Arrays.sort(work, 0, cycles);
+        Arrays.sort(periods, 1, cycles); // The first one is from before the loop
+        double workP99 = work[(int) (cycles * 0.99)] / 1e6;
+
+        System.out.println(name);
+        System.out.println(String.format(Locale.US,
+                "  %d cycles, work p50 %.3f ms, p99 %.3f ms, max %.3f ms | period p50 %.2f ms, max %.2f ms",
+                cycles, work[cycles / 2] / 1e6, workP99, work[cycles - 1] / 1e6,
+                periods[1 + (cycles - 1) / 2] / 1e6, periods[cycles - 1] / 1e6));
+        System.out.println(String.format(Locale.US,
+                "  %.2f s (planned %.2f s), ended at (%.3f m, %.3f m, %.1f°)",
+                actual, planned, robot.getX(), robot.getY(), Math.toDegrees(robot.getTrueHeadingRadians())));
+
+        return check(finished, "didn't finish")
+                & check(workP99 <= MAX_WORK_P99_MS, "cycle work p99 over " + MAX_WORK_P99_MS + " ms")
+                & check(actual - planned <= MAX_OVERRUN_SECONDS,
+                        "took over " + MAX_OVERRUN_SECONDS + " s longer than planned");
+    }
+
+    private static boolean check(boolean ok, String failure) {
+        if (!ok)
+            System.out.println("  FAILED: " + failure);
+        return ok;
+    }
+}
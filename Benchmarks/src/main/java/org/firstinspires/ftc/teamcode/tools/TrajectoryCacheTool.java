@@ -0,0 +1,49 @@
+package org.firstinspires.ftc.teamcode.tools;
+
+import org.firstinspires.ftc.teamcode.all_purpose.control.ElbowArmController;
+import org.firstinspires.ftc.teamcode.all_purpose.hardware.SimulatedRobot;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.TrajectoryCache;
+import org.firstinspires.ftc.teamcode.all_purpose.routines.CompiledRoutine;
+import org.firstinspires.ftc.teamcode.all_purpose.routines.Routine;
+import org.firstinspires.ftc.teamcode.all_purpose.routines.RoutineCompiler;
+import org.firstinspires.ftc.teamcode.self_driving.Routines;
+
+import java.io.File;
+
+/**
+ * Pre-generates the trajectory cache on a computer, so even the first init on the robot
+ * only loads files:
+ *
+ * <pre>
+ *   ./gradlew :Benchmarks:generateTrajectoryCache
+ *   adb push Benchmarks/build/trajectories/. /sdcard/FIRST/trajectories/
+ * </pre>
+ *
+ * Compiles every routine in {@link Routines} exactly like SelfDriving does, against a
+ * SimulatedRobot starting where the real one does (at the origin, arm resting), so the
+ * planned states, and so the keys, come out the same.
+ */
+public class TrajectoryCacheTool {
+    public static void main(String[] args) {
+        File directory = new File(args.length > 0 ? args[0] : "build/trajectories");
+        TrajectoryCache cache = new TrajectoryCache(directory);
+
+        compile("Back Parking", Routines.backParking(), cache);
+        compile("Left Start Parking", Routines.leftStartParking(), cache);
+        compile("Right Start Parking", Routines.rightStartParking(), cache);
+
+        System.out.println(cache);
+        if (cache.getFailedCount() > 0)
+            throw new IllegalStateException("Couldn't write every file to " + directory.getAbsolutePath());
+        System.out.println("adb push " + directory.getPath() + "/. " + TrajectoryCache.DEFAULT_DIRECTORY + "/");
+    }
+
+    private static void compile(String name, Routine routine, TrajectoryCache cache) {
+        SimulatedRobot robot = new SimulatedRobot(false);
+        CompiledRoutine compiled = RoutineCompiler.compile(routine, robot, new ElbowArmController(robot.arm()), cache);
+
+        System.out.println(name);
+        System.out.println(compiled);
+        System.out.println();
+    }
+}
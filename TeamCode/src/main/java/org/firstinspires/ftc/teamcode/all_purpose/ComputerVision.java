@@ -18,10 +18,11 @@ import org.firstinspires.ftc.vision.tfod.TfodProcessor;
  *   WEBCAM-SNAPSHOT-IMAGE  ->  APRIL-TAG-PROCESSOR  ->  FINAL-IMAGE-WITH-BOXES & MAGICAL-POS-DATA
  */
 public class ComputerVision {
-    public ColorDetectionProcessor colorDetectionProcessor;
-    public AprilTagProcessor aprilTagProcessor;
-    public TfodProcessor tfodProcessor;
-    public VisionPortal visionPortal;
+    // Volatile, initializeAsync() sets them on its own thread. Null until then (or if it failed).
+    public volatile ColorDetectionProcessor colorDetectionProcessor;
+    public volatile AprilTagProcessor aprilTagProcessor;
+    public volatile TfodProcessor tfodProcessor;
+    public volatile VisionPortal visionPortal;
 
     private final WebcamName webcamName;
 
@@ -110,15 +111,122 @@ public class ComputerVision {
         visionPortal = visionBuilder.build();
     }
 
+    //------------------------------------------------------------------------------------------------
+    // Background Startup
+    //------------------------------------------------------------------------------------------------
+    /*
+     * Building the VisionPortal and waiting for the webcam to stream takes a good second.
+     * Nothing else needs the camera during init, so it can start on its own thread while
+     * the HardwareManager (and the IMU) initialize, then awaitReady() before waitForStart().
+     * Everything here still works (or does nothing) if the startup timed out or failed.
+     */
+    private Thread startupThread;
+    private volatile boolean streaming;
+    private volatile RuntimeException startupError;
+    private boolean destroyed; // Guarded by this
+
+    /**
+     * Same as {@link #initialize(int, boolean)}, but on a background thread, which also waits
+     * for the camera to start streaming.
+     * @param initReport Records the "Vision" phase, can be null
+     */
+    public void initializeAsync(int processors, boolean enablePreview, InitReport initReport) {
+        startupThread = new Thread(() -> {
+            int phase = initReport != null ? initReport.begin("Vision") : -1;
+            try {
+                initialize(processors, enablePreview);
+
+                // destroy() came while the portal was being built, it couldn't close it
+                synchronized (this) {
+                    if (destroyed) {
+                        visionPortal.close();
+                        visionPortal = null;
+                        return;
+                    }
+                }
+
+                awaitStreaming();
+            } catch (RuntimeException e) {
+                startupError = e; // Not thrown, that would take the whole app down
+            } finally {
+                if (initReport != null)
+                    initReport.end(phase);
+            }
+        }, "ComputerVision Startup");
+
+        startupThread.setDaemon(true);
+        startupThread.start();
+    }
+
+    private static final long CAMERA_STATE_POLL_MS = 10;
+
+    private void awaitStreaming() {
+        while (!Thread.currentThread().isInterrupted()) {
+            VisionPortal.CameraState state = visionPortal.getCameraState();
+            if (state == VisionPortal.CameraState.STREAMING) {
+                streaming = true;
+                return;
+            }
+            if (state == VisionPortal.CameraState.ERROR)
+                return;
+
+            try {
+                Thread.sleep(CAMERA_STATE_POLL_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Blocks until {@link #initializeAsync} is done. On a timeout the startup thread stops
+     * waiting for the camera (the portal, if it got built, keeps starting on its own).
+     * @return false if it timed out, or the camera failed to start streaming
+     */
+    public boolean awaitReady(long timeoutMs) {
+        if (startupThread == null)
+            return visionPortal != null;
+
+        try {
+            startupThread.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (startupThread.isAlive())
+            startupThread.interrupt();
+
+        return streaming;
+    }
+
+    /** What initializeAsync() failed with, or null */
+    public RuntimeException getStartupError() {
+        return startupError;
+    }
+
     public void pause() {
-        visionPortal.stopStreaming();
+        VisionPortal portal = visionPortal;
+        if (portal != null)
+            portal.stopStreaming();
     }
 
     public void resume() {
-        visionPortal.resumeStreaming();
+        VisionPortal portal = visionPortal;
+        if (portal != null)
+            portal.resumeStreaming();
     }
 
+    /** Closes the camera, even if the startup is still going (it closes it when it's done then) */
     public void destroy() {
-        visionPortal.close();
+        if (startupThread != null)
+            startupThread.interrupt();
+
+        synchronized (this) {
+            destroyed = true;
+            if (visionPortal != null) {
+                visionPortal.close();
+                visionPortal = null;
+            }
+        }
     }
 }
@@ -2,23 +2,31 @@ package org.firstinspires.ftc.teamcode.all_purpose;
 
 import com.qualcomm.robotcore.hardware.DcMotorController;
 import com.qualcomm.robotcore.hardware.DcMotorImplEx;
-import com.qualcomm.robotcore.util.ElapsedTime;
 
 public class DcMotorWrapper extends DcMotorImplEx {
-    private double lastMotorPosition;
-    private double lastCheckedTimestamp;
-    private ElapsedTime elapsedTime;
+    private final VelocityEstimator estimator = new VelocityEstimator();
 
     public DcMotorWrapper(DcMotorController controller, int portNumber) {
         super(controller, portNumber);
-        elapsedTime = new ElapsedTime();
     }
 
-    public float getSpeed() {
-        float deltaTime = (float) (elapsedTime.seconds() - lastCheckedTimestamp);
-        float speed = (float) (getCurrentPosition() - lastMotorPosition) / deltaTime;
-        lastMotorPosition = getCurrentPosition();
-        lastCheckedTimestamp = elapsedTime.milliseconds();
-        return speed;
+    /** Read the encoder once and feed it to the estimator. Call once per control cycle. */
+    public void sample() {
+        estimator.update(System.nanoTime(), getCurrentPosition());
+    }
+
+    /** Counts per second, as of the last {@link #sample()} */
+    public double getSpeed() {
+        return estimator.getVelocity();
+    }
+
+    /** Counts per second², as of the last {@link #sample()} */
+    public double getAcceleration() {
+        return estimator.getAcceleration();
+    }
+
+    /** Estimated speed - the hub's own velocity measurement, counts per second */
+    public double getSpeedDiscrepancy() {
+        return estimator.getDiscrepancy(getVelocity());
     }
 }
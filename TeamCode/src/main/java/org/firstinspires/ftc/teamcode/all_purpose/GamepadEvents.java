@@ -0,0 +1,239 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+/**
+ * Turns a gamepad's button levels (down / up) into edges, once per loop:
+ *
+ * <pre>
+ *   raw        ___|‾‾‾‾‾‾‾‾‾‾‾‾‾‾‾‾‾‾‾‾|_____|‾‾|_|‾‾‾|____
+ *                  ↑                  ↑     ↑   (bounce, ignored)
+ *   events     PRESSED   HELD      RELEASED PRESSED / DOUBLE_TAP
+ *                        (after HOLD)      (within DOUBLE_TAP of the last press)
+ * </pre>
+ *
+ * Call {@link #update(Gamepad)} ONCE at the start of every loop, then ask about the
+ * buttons ({@link #wasPressed(int)}, ...) or walk this loop's event queue
+ * ({@link #getEventCount()}, {@link #getEventButton(int)}, {@link #getEventType(int)}).
+ * An edge is true for exactly one loop, however long the button stays down.<br><br>
+ *
+ * Debounce: once a button changes, further changes are ignored for the debounce time,
+ * so a bouncing contact (or a very noisy trigger) is one press, not three.<br><br>
+ *
+ * Everything lives in preallocated primitive arrays indexed by the button constants,
+ * nothing is allocated after construction.
+ */
+public class GamepadEvents {
+    // Buttons
+    public static final int A                  = 0;
+    public static final int B                  = 1;
+    public static final int X                  = 2;
+    public static final int Y                  = 3;
+    public static final int DPAD_UP            = 4;
+    public static final int DPAD_DOWN          = 5;
+    public static final int DPAD_LEFT          = 6;
+    public static final int DPAD_RIGHT         = 7;
+    public static final int LEFT_BUMPER        = 8;
+    public static final int RIGHT_BUMPER       = 9;
+    public static final int LEFT_TRIGGER       = 10; // Down = past the trigger threshold
+    public static final int RIGHT_TRIGGER      = 11;
+    public static final int LEFT_STICK_BUTTON  = 12;
+    public static final int RIGHT_STICK_BUTTON = 13;
+    public static final int BACK               = 14;
+    public static final int START              = 15;
+    public static final int GUIDE              = 16;
+    public static final int BUTTON_COUNT       = 17;
+
+    // Event types
+    public static final int PRESSED    = 0;
+    public static final int RELEASED   = 1;
+    public static final int HELD       = 2; // Once, after being down for the hold time
+    public static final int DOUBLE_TAP = 3; // Along with the second PRESSED
+
+    private static final long NANOS_PER_MS = 1_000_000;
+
+    private long debounceNanos = 20 * NANOS_PER_MS;
+    private long doubleTapNanos = 300 * NANOS_PER_MS;
+    private long holdNanos = 500 * NANOS_PER_MS;
+    private double triggerThreshold = 0.5;
+
+    // Per button
+    private final boolean[] down = new boolean[BUTTON_COUNT];        // Debounced
+    private final boolean[] pressed = new boolean[BUTTON_COUNT];     // This loop
+    private final boolean[] released = new boolean[BUTTON_COUNT];
+    private final boolean[] held = new boolean[BUTTON_COUNT];
+    private final boolean[] doubleTapped = new boolean[BUTTON_COUNT];
+    private final boolean[] holdReported = new boolean[BUTTON_COUNT];
+    private final long[] changeNanos = new long[BUTTON_COUNT];       // Last accepted change
+    private final long[] lastPressNanos = new long[BUTTON_COUNT];    // 0 = none to pair with
+    private final boolean[] raw = new boolean[BUTTON_COUNT];         // Scratch
+
+    // This loop's events, in button order. At most PRESSED + DOUBLE_TAP + HELD per button.
+    private final int[] eventButtons = new int[BUTTON_COUNT * 3];
+    private final int[] eventTypes = new int[BUTTON_COUNT * 3];
+    private int eventCount;
+
+    private long now;
+
+    //------------------------------------------------------------------------------------------------
+    // Config (chainable, call during init)
+    //------------------------------------------------------------------------------------------------
+    /** Changes within this long of the previous one are ignored. 0 = off. */
+    public GamepadEvents setDebounceMs(long milliseconds) {
+        if (milliseconds < 0)
+            throw new IllegalArgumentException("Debounce can't be negative, got " + milliseconds);
+        debounceNanos = milliseconds * NANOS_PER_MS;
+        return this;
+    }
+
+    /** Two presses within this long (press to press) are a double tap */
+    public GamepadEvents setDoubleTapMs(long milliseconds) {
+        if (milliseconds <= 0)
+            throw new IllegalArgumentException("Double tap time must be positive, got " + milliseconds);
+        doubleTapNanos = milliseconds * NANOS_PER_MS;
+        return this;
+    }
+
+    /** Down for this long = HELD */
+    public GamepadEvents setHoldMs(long milliseconds) {
+        if (milliseconds <= 0)
+            throw new IllegalArgumentException("Hold time must be positive, got " + milliseconds);
+        holdNanos = milliseconds * NANOS_PER_MS;
+        return this;
+    }
+
+    /** How far (0, 1] a trigger goes before it counts as down */
+    public GamepadEvents setTriggerThreshold(double threshold) {
+        if (threshold <= 0 || threshold > 1)
+            throw new IllegalArgumentException("Trigger threshold must be in (0, 1], got " + threshold);
+        triggerThreshold = threshold;
+        return this;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Update
+    //------------------------------------------------------------------------------------------------
+    /** Once per loop, before anything reads the events */
+    public void update(Gamepad gamepad) {
+        update(gamepad, System.nanoTime());
+    }
+
+    public void update(Gamepad gamepad, long nowNanos) {
+        raw[A]                  = gamepad.a;
+        raw[B]                  = gamepad.b;
+        raw[X]                  = gamepad.x;
+        raw[Y]                  = gamepad.y;
+        raw[DPAD_UP]            = gamepad.dpad_up;
+        raw[DPAD_DOWN]          = gamepad.dpad_down;
+        raw[DPAD_LEFT]          = gamepad.dpad_left;
+        raw[DPAD_RIGHT]         = gamepad.dpad_right;
+        raw[LEFT_BUMPER]        = gamepad.left_bumper;
+        raw[RIGHT_BUMPER]       = gamepad.right_bumper;
+        raw[LEFT_TRIGGER]       = gamepad.left_trigger > triggerThreshold;
+        raw[RIGHT_TRIGGER]      = gamepad.right_trigger > triggerThreshold;
+        raw[LEFT_STICK_BUTTON]  = gamepad.left_stick_button;
+        raw[RIGHT_STICK_BUTTON] = gamepad.right_stick_button;
+        raw[BACK]               = gamepad.back;
+        raw[START]              = gamepad.start;
+        raw[GUIDE]              = gamepad.guide;
+        update(raw, nowNanos);
+    }
+
+    /** @param buttons Down or not, indexed by the button constants */
+    public void update(boolean[] buttons, long nowNanos) {
+        now = nowNanos;
+        eventCount = 0;
+
+        for (int button = 0; button < BUTTON_COUNT; button++) {
+            pressed[button] = false;
+            released[button] = false;
+            held[button] = false;
+            doubleTapped[button] = false;
+
+            boolean changed = buttons[button] != down[button]
+                    && (changeNanos[button] == 0 || nowNanos - changeNanos[button] >= debounceNanos);
+
+            if (changed) {
+                down[button] = buttons[button];
+                changeNanos[button] = nowNanos;
+
+                if (down[button]) {
+                    pressed[button] = true;
+                    holdReported[button] = false;
+                    addEvent(button, PRESSED);
+
+                    // Pair with the previous press, but a third tap starts a new pair
+                    if (lastPressNanos[button] != 0 && nowNanos - lastPressNanos[button] <= doubleTapNanos) {
+                        doubleTapped[button] = true;
+                        lastPressNanos[button] = 0;
+                        addEvent(button, DOUBLE_TAP);
+                    } else {
+                        lastPressNanos[button] = nowNanos;
+                    }
+                } else {
+                    released[button] = true;
+                    addEvent(button, RELEASED);
+                }
+            }
+
+            if (down[button] && !holdReported[button] && nowNanos - changeNanos[button] >= holdNanos) {
+                held[button] = true;
+                holdReported[button] = true;
+                addEvent(button, HELD);
+            }
+        }
+    }
+
+    private void addEvent(int button, int type) {
+        eventButtons[eventCount] = button;
+        eventTypes[eventCount] = type;
+        eventCount++;
+    }
+
+    /** Everything up, no events, e.g. when the OpMode (re)starts */
+    public void reset() {
+        for (int button = 0; button < BUTTON_COUNT; button++) {
+            down[button] = pressed[button] = released[button] = held[button] = doubleTapped[button] = false;
+            holdReported[button] = false;
+            changeNanos[button] = 0;
+            lastPressNanos[button] = 0;
+        }
+        eventCount = 0;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Buttons (as of the last update)
+    //------------------------------------------------------------------------------------------------
+    /** Went down this loop */
+    public boolean wasPressed(int button)      { return pressed[button]; }
+    /** Went up this loop */
+    public boolean wasReleased(int button)     { return released[button]; }
+    /** Reached the hold time this loop */
+    public boolean wasHeld(int button)         { return held[button]; }
+    /** Second press of a double tap this loop */
+    public boolean wasDoubleTapped(int button) { return doubleTapped[button]; }
+    /** Level, debounced */
+    public boolean isDown(int button)          { return down[button]; }
+
+    /** How long the button has been down, 0 if it's up */
+    public double getHeldSeconds(int button) {
+        return down[button] ? (now - changeNanos[button]) * 1e-9 : 0;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Event queue (this loop only)
+    //------------------------------------------------------------------------------------------------
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /** @param index [0, getEventCount()) */
+    public int getEventButton(int index) {
+        return eventButtons[index];
+    }
+
+    /** PRESSED, RELEASED, HELD or DOUBLE_TAP */
+    public int getEventType(int index) {
+        return eventTypes[index];
+    }
+}
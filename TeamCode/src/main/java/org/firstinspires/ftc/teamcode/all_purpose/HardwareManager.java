@@ -1,10 +1,19 @@
 package org.firstinspires.ftc.teamcode.all_purpose;
 
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.hardware.rev.RevHubOrientationOnRobot;
 import com.qualcomm.robotcore.hardware.*;
 
+import java.util.List;
+
 import org.firstinspires.ftc.robotcore.external.Consumer;
 import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.MecanumOdometry;
+import org.firstinspires.ftc.teamcode.all_purpose.sensors.HardwareSensorSource;
+import org.firstinspires.ftc.teamcode.all_purpose.sensors.HeadingService;
+import org.firstinspires.ftc.teamcode.all_purpose.sensors.SensorSampler;
+import org.firstinspires.ftc.teamcode.all_purpose.sensors.SensorSnapshot;
+import org.firstinspires.ftc.teamcode.all_purpose.sensors.VoltageService;
 
 //import org.firstinspires.ftc.teamcode.all_purpose.DcMotorImplEx;
 //
@@ -31,24 +40,54 @@ public class HardwareManager {
 
     public void resetWheelEncoders() {
         doForAllWheels(this::resetDcMotorEncoder);
+        for (VelocityEstimator estimator : motorEstimators)
+            estimator.reset();
+        headingService.onWheelEncodersReset();
+        odometry.resetEncoderBaseline();
+        refresh(); // So the snapshot doesn't keep the pre-reset counts
     }
 
+    /** Served from the last {@link #refresh()} snapshot, no hub transaction. */
     public int getAverageWheelCounts() {
         int total = 0;
-        for (DcMotorImpl wheel : wheels)
-            total += wheel.getCurrentPosition();
+        for (int i = 0; i < wheels.length; i++)
+            total += motorPositions[i];
 
         return total / wheels.length;
     }
 
+    /** @param index Same order as {@link #wheels} (FL, FR, BL, BR) */
+    public int getWheelCounts(int index)      { return motorPositions[index]; }
+    /** Measured by the hub, counts per second. @param index Same order as {@link #wheels} (FL, FR, BL, BR) */
+    public double getWheelVelocity(int index) { return motorVelocities[index]; }
+    /** Fitted over the last few refreshes, counts per second. @param index Same order as {@link #wheels} */
+    public double getWheelVelocityEstimate(int index) { return motorEstimators[index].getVelocity(); }
+    /** Counts per second². @param index Same order as {@link #wheels} (FL, FR, BL, BR) */
+    public double getWheelAcceleration(int index)     { return motorEstimators[index].getAcceleration(); }
+
     //------------------------------------------------------------------------------------------------
     // Arm
     //------------------------------------------------------------------------------------------------
     public final Servo clawServoLeft;
     public final Servo clawServoRight;
     public final DcMotorImplEx elbowArmMotor;
-    public final CRServo clawExtenderServo;
 
+    /** Bound on first use, most OpModes never touch it */
+    public CRServo getClawExtenderServo() {
+        if (clawExtenderServo == null) {
+            clawExtenderServo = hardwareMap.get(CRServo.class, "clawExtenderS");
+            clawExtenderServo.setDirection(DcMotorSimple.Direction.REVERSE);
+        }
+
+        return clawExtenderServo;
+    }
+
+    private CRServo clawExtenderServo;
+
+    public int getElbowArmCounts()      { return motorPositions[ELBOW_ARM_INDEX]; }
+    public double getElbowArmVelocity() { return motorVelocities[ELBOW_ARM_INDEX]; }
+    public double getElbowArmVelocityEstimate() { return motorEstimators[ELBOW_ARM_INDEX].getVelocity(); }
+    public boolean isElbowArmBusy()     { return motorBusy[ELBOW_ARM_INDEX]; }
 
     //------------------------------------------------------------------------------------------------
     // Drone Launcher
@@ -62,12 +101,38 @@ public class HardwareManager {
     //------------------------------------------------------------------------------------------------
     public final DcMotorImplEx liftMotor;
 
+    public int getLiftCounts() { return motorPositions[LIFT_INDEX]; }
+
     //------------------------------------------------------------------------------------------------
     // Sensors
     //------------------------------------------------------------------------------------------------
     public final VoltageSensor voltageSensor;
     public final IMU imu;
 
+    /**
+     * Reads the IMU and voltage on a background thread (the encoders are refresh()'s). Not running
+     * by default, OpModes that want it call {@code sensorSampler.start()}.
+     */
+    public final SensorSampler sensorSampler;
+    private static final double SENSOR_SAMPLE_RATE_HZ = 100;
+    private static final long FRESH_SAMPLE_TIMEOUT_MS = 100;
+
+    /**
+     * IMU heading from the {@link #sensorSampler}, extrapolated with the wheel encoders
+     * between samples. Updated by every {@link #refresh()}.
+     */
+    public final HeadingService headingService;
+    private static final double MAX_HEADING_EXTRAPOLATION_MS = 100;
+
+    /**
+     * Filtered battery voltage, and the factor that scales motor powers to their
+     * 12V equivalent. Updated by every {@link #refresh()}.
+     */
+    public final VoltageService voltageService;
+
+    /** Field position from the wheel encoders and the sampled heading. Updated by every {@link #refresh()}. */
+    public final MecanumOdometry odometry = new MecanumOdometry();
+
     /**
      * Returns a normalized robot yaw orientation in Degrees (°)
      *
@@ -76,13 +141,181 @@ public class HardwareManager {
      * LEFT  -90           +         90 RIGHT
      *                 -180/180
      *                 BACKWARD
+     *
+     * Served from the {@link #headingService} as of the last {@link #refresh()} when the
+     * {@link #sensorSampler} is running (no I2C transaction), otherwise read from the IMU directly.
      */
     public double getCurrentDegreeHeading() {
+        if (sensorSampler.isRunning() && headingService.hasHeading())
+            return headingService.getHeading();
+
+        awaitImu();
         return imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.DEGREES);
     }
 
+    /**
+     * Copy the latest background sample into the given snapshot.
+     * @return false if the {@link #sensorSampler} hasn't sampled anything yet
+     */
+    public boolean readSensors(SensorSnapshot into) {
+        return sensorSampler.read(into);
+    }
+
+    /** Waits for the IMU to be initialized, then starts the {@link #sensorSampler}. */
+    public void startSensorSampler() {
+        awaitImu();
+        sensorSampler.start();
+    }
+
+    /**
+     * Resets the IMU yaw to 0, and if the {@link #sensorSampler} is running, waits for
+     * a sample taken after the reset. So the next heading read is never pre-reset.
+     */
+    public void resetYaw() {
+        awaitImu();
+        long resetTime = System.nanoTime();
+        imu.resetYaw();
+
+        odometry.resetHeadingBaseline();
+        if (sensorSampler.isRunning()) {
+            sensorSampler.awaitSampleAfter(resetTime, FRESH_SAMPLE_TIMEOUT_MS);
+            odometry.resetHeadingBaseline(); // Again, in case a refresh() happened in between
+            refresh(); // Pick the post-reset sample up in the heading
+        }
+    }
+
+
+    //------------------------------------------------------------------------------------------------
+    // Bulk Reads
+    //------------------------------------------------------------------------------------------------
+    /*
+     * Every getCurrentPosition() / getVelocity() / isBusy() is normally its own round-trip
+     * to the hub. With the hubs in MANUAL bulk-caching mode, the first read after
+     * clearBulkCache() pulls ALL the motor data in one transaction, and every read after
+     * that is served from the hub's cache. refresh() does exactly that once per control
+     * cycle and copies the values into plain arrays, so the rest of the code can read
+     * them as often as it likes for free. (See ConceptMotorBulkRead in the samples)
+     *
+     * IMPORTANT: Since the cache is only cleared by refresh(), reading a motor directly
+     * without calling refresh() will keep returning the same stale value forever.
+     */
+    private static final int ELBOW_ARM_INDEX = 4;
+    private static final int LIFT_INDEX = 5;
+
+    private final List<LynxModule> hubs;
+    private final DcMotorImplEx[] trackedMotors; // wheels..., elbow, lift
+    private final int[] motorPositions;
+    private final double[] motorVelocities;
+    private final boolean[] motorBusy;
+    private final VelocityEstimator[] motorEstimators;
+
+    /**
+     * Takes a single bulk-read snapshot of every encoder, velocity and busy state,
+     * and feeds the positions to the velocity estimators.
+     * Call this ONCE at the start of every control cycle.
+     */
+    public void refresh() {
+        for (LynxModule hub : hubs)
+            hub.clearBulkCache();
+
+        for (int i = 0; i < trackedMotors.length; i++) {
+            motorPositions[i]  = trackedMotors[i].getCurrentPosition();
+            motorVelocities[i] = trackedMotors[i].getVelocity();
+            motorBusy[i]       = trackedMotors[i].isBusy();
+        }
+
+        long timestamp = System.nanoTime(); // All read in the same bulk read
+        for (int i = 0; i < trackedMotors.length; i++)
+            motorEstimators[i].update(timestamp, motorPositions[i]);
+
+        headingService.update(motorPositions[0], motorPositions[1], motorPositions[2], motorPositions[3], timestamp);
+        voltageService.update();
+
+        // Fused with the sampled heading when there is one, never reads the IMU itself
+        double heading = sensorSampler.isRunning() && headingService.hasHeading()
+                ? headingService.getHeadingRadians()
+                : Double.NaN;
+        odometry.update(motorPositions[0], motorPositions[1], motorPositions[2], motorPositions[3], heading, timestamp);
+    }
+
+
+    //------------------------------------------------------------------------------------------------
+    // Initialization
+    //------------------------------------------------------------------------------------------------
+    /*
+     * imu.initialize() is by far the slowest part of init (it waits on the IMU chip itself),
+     * so it runs on a background thread while everything else is set up. Anything that
+     * needs the IMU waits for it (awaitImu()), and OpModes call awaitReady() before
+     * waitForStart(), so by the time the match starts it's always done.
+     */
+    private static final long IMU_INIT_TIMEOUT_MS = 3000;
+
+    public final InitReport initReport;
+    private final HardwareMap hardwareMap;
+    private final Thread imuInitThread;
+    private volatile boolean imuReady;
+
+    /**
+     * Blocks until every background initialization is done.
+     * @return false if it timed out, or the IMU failed to initialize
+     */
+    public boolean awaitReady(long timeoutMs) {
+        try {
+            imuInitThread.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return imuReady;
+    }
+
+    /** Non-blocking, e.g. for init_loop() telemetry. */
+    public boolean isReady() {
+        return imuReady;
+    }
+
+    private void awaitImu() {
+        if (!imuReady)
+            awaitReady(IMU_INIT_TIMEOUT_MS);
+    }
+
+    private void initializeImu() {
+        int phase = initReport.begin("IMU");
+        IMU.Parameters parameters = new IMU.Parameters(
+                new RevHubOrientationOnRobot(
+                        RevHubOrientationOnRobot.LogoFacingDirection.UP,
+                        RevHubOrientationOnRobot.UsbFacingDirection.LEFT
+                )
+        );
+
+        boolean initialized = imu.initialize(parameters);
+        imu.resetYaw();
+        initReport.end(phase);
+        imuReady = initialized;
+    }
 
     public HardwareManager(HardwareMap hardwareMap) {
+        this(hardwareMap, new InitReport());
+    }
+
+    /** @param initReport Where to record how long each init phase took, shared with the OpMode */
+    public HardwareManager(HardwareMap hardwareMap, InitReport initReport) {
+        this.hardwareMap = hardwareMap;
+        this.initReport = initReport;
+
+        // IMU first, so it initializes while everything else is set up
+        imu = hardwareMap.get(IMU.class, "imu");
+        imuInitThread = new Thread(this::initializeImu, "HardwareManager IMU Init");
+        imuInitThread.setDaemon(true);
+        imuInitThread.start();
+
+        int bindPhase = initReport.begin("Bind");
+
+        // Hubs
+        hubs = hardwareMap.getAll(LynxModule.class);
+        for (LynxModule hub : hubs)
+            hub.setBulkCachingMode(LynxModule.BulkCachingMode.MANUAL);
+
         // Wheels
         wheels = new DcMotorImplEx[] {
                 hardwareMap.get(DcMotorImplEx.class, "FrontLeftM"),
@@ -103,7 +336,6 @@ public class HardwareManager {
         clawServoLeft = hardwareMap.get(Servo.class, "ClawLeftS");
         clawServoRight = hardwareMap.get(Servo.class, "ClawRightS");
         elbowArmMotor = hardwareMap.get(DcMotorImplEx.class, "ElbowArmM");
-        clawExtenderServo = hardwareMap.get(CRServo.class, "clawExtenderS");
 
         clawServoLeft.setDirection(Servo.Direction.REVERSE);
         clawServoRight.setDirection(Servo.Direction.FORWARD);
@@ -111,8 +343,6 @@ public class HardwareManager {
         elbowArmMotor.setDirection(DcMotorSimple.Direction.FORWARD);
         elbowArmMotor.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
 
-        clawExtenderServo.setDirection(DcMotorSimple.Direction.REVERSE);
-
         // Drone Launcher
         //droneLauncherBase = hardwareMap.get(ServoImplEx.class, "LauncherBaseS");
         //droneLauncherHook = hardwareMap.get(ServoImplEx.class, "LauncherHookS");
@@ -125,17 +355,40 @@ public class HardwareManager {
 
         // Sensors
         voltageSensor = hardwareMap.voltageSensor.iterator().next();
-        imu = hardwareMap.get(IMU.class, "imu");
 
-        IMU.Parameters parameters = new IMU.Parameters(
-                new RevHubOrientationOnRobot(
-                        RevHubOrientationOnRobot.LogoFacingDirection.UP,
-                        RevHubOrientationOnRobot.UsbFacingDirection.LEFT
-                )
+        // Background Sampling
+        sensorSampler = new SensorSampler(
+                new HardwareSensorSource(imu, voltageSensor),
+                SENSOR_SAMPLE_RATE_HZ
+        );
+        headingService = new HeadingService(
+                sensorSampler,
+                RobotConstants.TICKS_PER_METER,
+                RobotConstants.HALF_TRACK_WIDTH_METERS + RobotConstants.HALF_WHEEL_BASE_METERS,
+                MAX_HEADING_EXTRAPOLATION_MS
+        );
+        voltageService = new VoltageService(
+                sensorSampler,
+                voltageSensor::getVoltage,
+                VoltageService.DEFAULT_TIME_CONSTANT_MS
         );
 
-        imu.initialize(parameters);
-        imu.resetYaw();
+        // Bulk Reads
+        trackedMotors = new DcMotorImplEx[] {
+                wheels[0], wheels[1], wheels[2], wheels[3],
+                elbowArmMotor,
+                liftMotor
+        };
+
+        motorPositions  = new int[trackedMotors.length];
+        motorVelocities = new double[trackedMotors.length];
+        motorBusy       = new boolean[trackedMotors.length];
+        motorEstimators = new VelocityEstimator[trackedMotors.length];
+        for (int i = 0; i < trackedMotors.length; i++)
+            motorEstimators[i] = new VelocityEstimator();
+        refresh();
+
+        initReport.end(bindPhase);
     }
 
     public void resetDcMotorEncoder(DcMotorImpl motor) {
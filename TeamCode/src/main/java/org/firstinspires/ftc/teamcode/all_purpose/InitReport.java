@@ -0,0 +1,90 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+
+import java.util.Locale;
+
+/**
+ * How long each part of an OpMode's init took, so we know where the time between
+ * matches goes.<br><br>
+ *
+ * Phases can run in parallel (e.g. the IMU initializing while the camera starts), so each
+ * one records its own start and end, and the total is the wall-clock time from creating
+ * this to {@link #finish()}, NOT the sum of the phases:
+ *
+ * <pre>
+ *   Bind    |==|
+ *   IMU     |============|
+ *   Vision  |=========|
+ *   Total   |============|  <- what the drive team actually waits
+ * </pre>
+ *
+ * Thread-safe, phases usually finish on background threads.
+ */
+public class InitReport {
+    private static final int MAX_PHASES = 16;
+
+    private final long startNanos = System.nanoTime();
+    private final String[] phaseNames = new String[MAX_PHASES];
+    private final long[] phaseStartNanos = new long[MAX_PHASES];
+    private final long[] phaseEndNanos = new long[MAX_PHASES];
+    private int phaseCount;
+    private long finishNanos;
+
+    /** @return The id to pass to {@link #end(int)} */
+    public synchronized int begin(String phaseName) {
+        if (phaseCount == MAX_PHASES)
+            throw new IllegalStateException("InitReport supports at most " + MAX_PHASES + " phases");
+
+        phaseNames[phaseCount] = phaseName;
+        phaseStartNanos[phaseCount] = System.nanoTime();
+        return phaseCount++;
+    }
+
+    public synchronized void end(int phase) {
+        phaseEndNanos[phase] = System.nanoTime();
+    }
+
+    /** Everything is ready, stops the total and writes the report to the robot log. */
+    public void finish() {
+        synchronized (this) {
+            finishNanos = System.nanoTime();
+        }
+        RobotLog.ii("InitReport", toString());
+    }
+
+    /** Milliseconds since this was created, up to {@link #finish()} if it was called. */
+    public synchronized double getTotalMs() {
+        long end = finishNanos != 0 ? finishNanos : System.nanoTime();
+        return (end - startNanos) / 1e6;
+    }
+
+    /** One line per phase, then the total. Phases still running show as such. */
+    public synchronized void addReportTo(Telemetry telemetry) {
+        for (int i = 0; i < phaseCount; i++)
+            telemetry.addLine(formatPhase(i));
+
+        telemetry.addLine(String.format(Locale.US, "Init %-8s %7.1f ms", "Total", getTotalMs()));
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < phaseCount; i++)
+            builder.append(formatPhase(i)).append(", ");
+
+        return builder.append(String.format(Locale.US, "Total %.1f ms", getTotalMs())).toString();
+    }
+
+    private String formatPhase(int phase) {
+        if (phaseEndNanos[phase] == 0)
+            return String.format(Locale.US, "Init %-8s running..", phaseNames[phase]);
+
+        return String.format(Locale.US, "Init %-8s %7.1f ms (from +%.1f)",
+                phaseNames[phase],
+                (phaseEndNanos[phase] - phaseStartNanos[phase]) / 1e6,
+                (phaseStartNanos[phase] - startNanos) / 1e6);
+    }
+}
@@ -0,0 +1,248 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.acmerobotics.dashboard.FtcDashboard;
+import com.acmerobotics.dashboard.telemetry.TelemetryPacket;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Measures where the time goes inside a control loop, without slowing it down.<br><br>
+ *
+ * Usage:
+ * <pre>
+ *   // Once, in init
+ *   profiler = new LoopProfiler("TeleOp");
+ *   INPUT = profiler.addPhase("Input");
+ *   WRITE = profiler.addPhase("Writes");
+ *
+ *   // Every loop
+ *   profiler.beginCycle();
+ *   readGamepads();       profiler.mark(INPUT);  // Time since the previous mark goes to INPUT
+ *   sendToHardware();     profiler.mark(WRITE);
+ *   profiler.endCycle();
+ *   profiler.report(telemetry);  // Iterative OpModes, telemetry is sent after every loop()
+ *
+ *   // Or, in a LinearOpMode loop that shows nothing else
+ *   if (profiler.refreshReport()) {
+ *       profiler.addReportTo(telemetry);
+ *       telemetry.update();
+ *   }
+ * </pre>
+ *
+ * A phase can be marked several times in one cycle (the times are summed), so marks
+ * can live inside helper methods too. Every phase, plus the whole cycle and the time
+ * between cycles, goes into its own fixed-bucket latency histogram, from which
+ * p50 / p95 / p99 / max are read. Nothing is allocated after init, except when
+ * the report text is rebuilt, which only happens every {@link #REPORT_INTERVAL_MS}.<br><br>
+ *
+ * How do the buckets work? - Log-Linear Histogram<br>
+ *
+ * Each power of two of microseconds (e.g. 1024-2047µs) is split into 16 equal buckets,
+ * so every bucket is within ~6% of the real value, for any duration, in under a
+ * thousand longs per phase. Finding the bucket is a couple of bit operations.<br><br>
+ *
+ * NOT thread-safe. Use one profiler per thread (e.g. one for the OpMode, one inside a
+ * vision processor). Reporting another thread's profiler is fine for display, the
+ * numbers may just be a cycle behind.
+ */
+public class LoopProfiler {
+    public static final long REPORT_INTERVAL_MS = 500;
+
+    private static final int MAX_PHASES = 16;
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    // Histogram rows: the phases, then these two
+    private static final int CYCLE = MAX_PHASES;
+    private static final int PERIOD = MAX_PHASES + 1;
+
+    private final String name;
+    private final String[] phaseNames = new String[MAX_PHASES];
+    private final long[][] histograms = new long[MAX_PHASES + 2][BUCKET_COUNT];
+    private final long[] sampleCounts = new long[MAX_PHASES + 2];
+    private final long[] maxMicros = new long[MAX_PHASES + 2];
+    private final long[] phaseNanosThisCycle = new long[MAX_PHASES];
+    private int phaseCount;
+
+    private long cycleStartNanos;
+    private long lastMarkNanos;
+    private long lastReportNanos;
+    private final String[] reportLines = new String[MAX_PHASES + 2];
+    private int reportLineCount;
+
+    /** @param name Shown in front of every reported line, e.g. "TeleOp" */
+    public LoopProfiler(String name) {
+        this.name = name;
+    }
+
+    /** Call during init only. @return The id to pass to {@link #mark(int)} */
+    public int addPhase(String phaseName) {
+        if (phaseCount == MAX_PHASES)
+            throw new IllegalStateException("LoopProfiler supports at most " + MAX_PHASES + " phases");
+
+        phaseNames[phaseCount] = phaseName;
+        return phaseCount++;
+    }
+
+    public void beginCycle() {
+        long now = System.nanoTime();
+        if (cycleStartNanos != 0)
+            record(PERIOD, now - cycleStartNanos);
+
+        cycleStartNanos = now;
+        lastMarkNanos = now;
+    }
+
+    /** Adds the time since the previous mark (or {@link #beginCycle()}) to the given phase. */
+    public void mark(int phase) {
+        long now = System.nanoTime();
+        phaseNanosThisCycle[phase] += now - lastMarkNanos;
+        lastMarkNanos = now;
+    }
+
+    public void endCycle() {
+        record(CYCLE, System.nanoTime() - cycleStartNanos);
+
+        for (int i = 0; i < phaseCount; i++) {
+            record(i, phaseNanosThisCycle[i]);
+            phaseNanosThisCycle[i] = 0;
+        }
+    }
+
+    /** Forget everything recorded so far (phases are kept). */
+    public void reset() {
+        for (int row = 0; row < histograms.length; row++) {
+            Arrays.fill(histograms[row], 0);
+            sampleCounts[row] = 0;
+            maxMicros[row] = 0;
+        }
+
+        cycleStartNanos = 0;
+    }
+
+    /**
+     * Recomputes p50 / p95 / p99 / max of every phase and sends them to the FTC Dashboard,
+     * but only if {@link #REPORT_INTERVAL_MS} has passed since the last time.
+     * @return true if the numbers were just recomputed
+     */
+    public boolean refreshReport() {
+        long now = System.nanoTime();
+        if (now - lastReportNanos < REPORT_INTERVAL_MS * 1_000_000L)
+            return false;
+
+        lastReportNanos = now;
+        rebuildReport();
+        return true;
+    }
+
+    /** Adds the last computed report to the telemetry, one line per phase. */
+    public void addReportTo(Telemetry telemetry) {
+        for (int i = 0; i < reportLineCount; i++)
+            telemetry.addLine(reportLines[i]);
+    }
+
+    /**
+     * {@link #refreshReport()} + {@link #addReportTo(Telemetry)}. For iterative OpModes,
+     * which send the telemetry after every loop() anyway, so call this every loop.
+     */
+    public void report(Telemetry telemetry) {
+        refreshReport();
+        addReportTo(telemetry);
+    }
+
+    /** @param percentile 0 - 100. @return Milliseconds */
+    public double getPercentileMs(int phase, double percentile) {
+        return percentileMicros(phase, percentile) / 1000.0;
+    }
+
+    /** @return Milliseconds */
+    public double getMaxMs(int phase) {
+        return maxMicros[phase] / 1000.0;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Histogram
+    //------------------------------------------------------------------------------------------------
+    private void record(int row, long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        histograms[row][bucketOf(micros)]++;
+        sampleCounts[row]++;
+        if (micros > maxMicros[row])
+            maxMicros[row] = micros;
+    }
+
+    private static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS)
+            return (int) micros;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(micros); // floor(log2)
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (micros >>> shift) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    /** The highest value that falls into the given bucket. */
+    private static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        long lower = (long) (SUB_BUCKETS + subBucket) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    private long percentileMicros(int row, double percentile) {
+        long count = sampleCounts[row];
+        if (count == 0)
+            return 0;
+
+        long target = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += histograms[row][bucket];
+            if (seen >= target)
+                return Math.min(bucketUpperBound(bucket), maxMicros[row]);
+        }
+
+        return maxMicros[row];
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Reporting
+    //------------------------------------------------------------------------------------------------
+    private void rebuildReport() {
+        TelemetryPacket packet = new TelemetryPacket();
+        reportLineCount = 0;
+
+        reportLines[reportLineCount++] = formatRow("Period", PERIOD, packet);
+        reportLines[reportLineCount++] = formatRow("Cycle", CYCLE, packet);
+        for (int i = 0; i < phaseCount; i++)
+            reportLines[reportLineCount++] = formatRow(phaseNames[i], i, packet);
+
+        FtcDashboard dashboard = FtcDashboard.getInstance();
+        if (dashboard != null)
+            dashboard.sendTelemetryPacket(packet);
+    }
+
+    private String formatRow(String rowName, int row, TelemetryPacket packet) {
+        double p50 = percentileMicros(row, 50) / 1000.0;
+        double p95 = percentileMicros(row, 95) / 1000.0;
+        double p99 = percentileMicros(row, 99) / 1000.0;
+        double max = maxMicros[row] / 1000.0;
+
+        String key = name + "/" + rowName;
+        packet.put(key + "/p50 (ms)", p50);
+        packet.put(key + "/p95 (ms)", p95);
+        packet.put(key + "/p99 (ms)", p99);
+        packet.put(key + "/max (ms)", max);
+
+        return String.format(Locale.US,
+                "%s %-10s p50 %6.2f  p95 %6.2f  p99 %6.2f  max %6.2f ms",
+                name, rowName, p50, p95, p99, max);
+    }
+}
@@ -1,10 +1,31 @@
 package org.firstinspires.ftc.teamcode.all_purpose;
 
 /**
- * Static class for miscellaneous methods
+ * Static class for miscellaneous methods. <br><br>
+ *
+ * Only plain Java in here (no SDK classes), so the Benchmarks module can
+ * compile and measure these exact methods on a desktop JVM.
  */
 public class Misc {
-    public static double easeWithCubic(double value) {
-        return Math.pow(value, 3);
+    //------------------------------------------------------------------------------------------------
+    // Angles
+    //------------------------------------------------------------------------------------------------
+    /** Degrees, into [-180, 180). E.g. the short way from a to b is wrapDegrees(b - a). */
+    public static double wrapDegrees(double degrees) {
+        return wrap(degrees, 360);
+    }
+
+    /** Radians, into [-π, π) */
+    public static double wrapRadians(double radians) {
+        return wrap(radians, 2 * Math.PI);
+    }
+
+    /** Into [-range / 2, range / 2), however far out it is. No loops. */
+    public static double wrap(double value, double range) {
+        double half = range / 2;
+        value = (value + half) % range;
+        if (value < 0)
+            value += range;
+        return value - half;
     }
 }
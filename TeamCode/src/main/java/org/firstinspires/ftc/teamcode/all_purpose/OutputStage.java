@@ -0,0 +1,154 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+import com.qualcomm.robotcore.hardware.Servo;
+
+/**
+ * Buffers the desired output of every actuator during a control cycle, and only
+ * sends the ones that actually changed to the hub when {@link #flush()} is called.<br><br>
+ *
+ * Every setPower(), setPosition() or setDirection() on a hardware binding class is
+ * its own hub transaction, even when the value is the same as last cycle. Routing
+ * them through here means a TeleOp where the driver holds the stick still costs
+ * (almost) no writes at all:
+ *
+ *   OpMode Logic -> setPower / setPosition / setDirection (buffered, free)
+ *                                      |
+ *                                     \/
+ *                         flush() once at the end of the cycle
+ *                                      |
+ *                                     \/
+ *                  only actuators that moved more than EPSILON get written
+ *
+ * Actuators are registered on first use into fixed size arrays, so nothing is
+ * allocated once every actuator has been touched once.<br><br>
+ *
+ * Motor powers (not servos, their power is regulated) can be scaled by
+ * {@link #setPowerScale(double)}, e.g. for battery voltage compensation.<br><br>
+ *
+ * IMPORTANT: Writing to an actuator directly (bypassing this class) makes the
+ * remembered value wrong. Call {@link #invalidate()} after doing so, to force
+ * everything to be re-sent on the next flush.
+ */
+public class OutputStage {
+    public static final double DEFAULT_EPSILON = 0.001;
+    private static final int MAX_ACTUATORS = 16;
+
+    private final double epsilon;
+
+    private final Object[] actuators = new Object[MAX_ACTUATORS];
+    private final boolean[] scaled = new boolean[MAX_ACTUATORS];
+    private final double[] desiredValues = new double[MAX_ACTUATORS];
+    private final double[] committedValues = new double[MAX_ACTUATORS];
+    private final DcMotorSimple.Direction[] desiredDirections = new DcMotorSimple.Direction[MAX_ACTUATORS];
+    private final DcMotorSimple.Direction[] committedDirections = new DcMotorSimple.Direction[MAX_ACTUATORS];
+    private int actuatorCount;
+    private int lastFlushWrites;
+    private double powerScale = 1;
+
+    public OutputStage() {
+        this(DEFAULT_EPSILON);
+    }
+
+    /** @param epsilon Changes smaller than this (in power or servo position) are not sent */
+    public OutputStage(double epsilon) {
+        this.epsilon = epsilon;
+    }
+
+    public void setPower(DcMotorSimple motor, double power) {
+        desiredValues[indexOf(motor)] = power;
+    }
+
+    public void setDirection(DcMotorSimple motor, DcMotorSimple.Direction direction) {
+        desiredDirections[indexOf(motor)] = direction;
+    }
+
+    public void setPosition(Servo servo, double position) {
+        desiredValues[indexOf(servo)] = position;
+    }
+
+    /**
+     * Every DcMotor power is multiplied by this (then clamped to [-1, 1]) when flushed.
+     * E.g. {@code hardwareManager.voltageService.getCompensation()}, set every cycle.
+     */
+    public void setPowerScale(double scale) {
+        powerScale = scale;
+    }
+
+    /** Sends every actuator whose desired value differs from what was last sent. */
+    public void flush() {
+        int writes = 0;
+
+        for (int i = 0; i < actuatorCount; i++) {
+            // Direction first, so the new power is applied the right way around.
+            // The SDK only applies the direction on the next setPower(), so force one.
+            if (desiredDirections[i] != null && desiredDirections[i] != committedDirections[i]) {
+                ((DcMotorSimple) actuators[i]).setDirection(desiredDirections[i]);
+                committedDirections[i] = desiredDirections[i];
+                committedValues[i] = Double.NaN;
+                writes++;
+            }
+
+            double value = scaled[i]
+                    ? Math.max(-1, Math.min(1, desiredValues[i] * powerScale))
+                    : desiredValues[i];
+
+            if (!shouldWrite(value, committedValues[i]))
+                continue;
+
+            if (actuators[i] instanceof Servo)
+                ((Servo) actuators[i]).setPosition(value);
+            else
+                ((DcMotorSimple) actuators[i]).setPower(value);
+
+            committedValues[i] = value;
+            writes++;
+        }
+
+        lastFlushWrites = writes;
+    }
+
+    /** Forget what was last sent, so the next {@link #flush()} re-sends everything. */
+    public void invalidate() {
+        for (int i = 0; i < actuatorCount; i++) {
+            committedValues[i] = Double.NaN;
+            committedDirections[i] = null;
+        }
+    }
+
+    /** Number of hub writes the last {@link #flush()} actually did. For Debugging. */
+    public int getLastFlushWrites() {
+        return lastFlushWrites;
+    }
+
+    private boolean shouldWrite(double desired, double committed) {
+        if (Double.isNaN(desired))
+            return false; // Only the direction was ever set
+
+        if (Double.isNaN(committed))
+            return true; // Never sent
+
+        if (desired == committed)
+            return false;
+
+        // Always honor an exact 0, or a motor could be left creeping at a tiny power
+        return desired == 0 || Math.abs(desired - committed) > epsilon;
+    }
+
+    private int indexOf(Object actuator) {
+        // Linear scan by identity, there are never more than a handful of actuators
+        for (int i = 0; i < actuatorCount; i++)
+            if (actuators[i] == actuator)
+                return i;
+
+        if (actuatorCount == MAX_ACTUATORS)
+            throw new IllegalStateException("OutputStage can only manage " + MAX_ACTUATORS + " actuators");
+
+        actuators[actuatorCount] = actuator;
+        scaled[actuatorCount] = actuator instanceof DcMotor;
+        desiredValues[actuatorCount] = Double.NaN;
+        committedValues[actuatorCount] = Double.NaN;
+        return actuatorCount++;
+    }
+}
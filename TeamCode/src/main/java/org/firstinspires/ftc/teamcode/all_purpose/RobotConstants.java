@@ -0,0 +1,86 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+/**
+ * Static class for the physical measurements of the robot, shared by the real
+ * hardware code, the simulation and everything that plans movements.<br><br>
+ *
+ * Plain Java only (no SDK classes), so it can also be used off the robot.
+ */
+public class RobotConstants {
+    //------------------------------------------------------------------------------------------------
+    // Drivetrain
+    //------------------------------------------------------------------------------------------------
+    public static final double WHEEL_COUNTS_PER_REVOLUTION = 1010;
+    public static final double WHEEL_DIAMETER_METERS = 0.098;
+    public static final double TICKS_PER_METER = WHEEL_COUNTS_PER_REVOLUTION / (Math.PI * WHEEL_DIAMETER_METERS);
+
+    // From the robot center to the wheel contact points. Re-measure if the chassis changes.
+    public static final double HALF_TRACK_WIDTH_METERS = 0.19;
+    public static final double HALF_WHEEL_BASE_METERS = 0.17;
+
+    // Motion limits for planned moves (see MotionProfile). Lower them if the wheels slip.
+    public static final double MAX_DRIVE_VELOCITY = 1.2;      // m/s
+    public static final double MAX_DRIVE_ACCELERATION = 1.5;  // m/s²
+    public static final double MAX_DRIVE_JERK = 8;            // m/s³
+
+    // Feedforward + feedback for following a profile, power = KS + KV·v + KA·a + KP·error
+    public static final double DRIVE_KS = 0.05;   // Power to overcome static friction
+    public static final double DRIVE_KV = 0.62;   // Power per m/s (1 / top speed)
+    public static final double DRIVE_KA = 0.05;   // Power per m/s²
+    public static final double DRIVE_KP = 2.0;    // Power per meter behind
+    public static final double DRIVE_POSITION_TOLERANCE_METERS = 0.02;
+
+    // Path following (see SplinePath, PathFollowCommand)
+    public static final double PATH_LOOKAHEAD_METERS = 0.3;          // Shorter hugs the path, longer is smoother
+    public static final double MAX_CENTRIPETAL_ACCELERATION = 1.0;   // m/s², how hard curves can be taken
+
+    // Turns on the spot (see ProfiledTurnCommand), degrees
+    public static final double MAX_TURN_VELOCITY = 180;       // °/s
+    public static final double MAX_TURN_ACCELERATION = 360;   // °/s²
+    private static final double WHEEL_METERS_PER_DEGREE =
+            Math.toRadians(1) * (HALF_TRACK_WIDTH_METERS + HALF_WHEEL_BASE_METERS);
+    public static final double TURN_KS = DRIVE_KS;
+    public static final double TURN_KV = DRIVE_KV * WHEEL_METERS_PER_DEGREE; // Same wheels, same feedforward
+    public static final double TURN_KA = DRIVE_KA * WHEEL_METERS_PER_DEGREE;
+    public static final double TURN_KP = 0.03;    // Power per degree behind
+    public static final double TURN_KD = 0.002;
+    public static final double TURN_TOLERANCE_DEGREES = 1.5;
+    public static final double TURN_RATE_TOLERANCE = 5;       // °/s, slower than this counts as stopped
+
+    // Heading hold while driving, turn power per degree off
+    public static final double HEADING_KP = 0.02;
+    public static final double HEADING_KI = 0.01;
+    public static final double HEADING_KD = 0.001;
+    public static final double HEADING_MAX_CORRECTION = 0.3; // Power, so it can't take over the drive
+
+    //------------------------------------------------------------------------------------------------
+    // Elbow Arm
+    //------------------------------------------------------------------------------------------------
+    public static final double COUNTS_PER_ELBOW_REVOLUTION = 1440;
+    public static final double ARM_GEAR_RATIO = 2;
+    public static final double COUNTS_PER_ANGLE = (COUNTS_PER_ELBOW_REVOLUTION * ARM_GEAR_RATIO) / 360.0; // DEGREES
+
+    // Sign of the motor power (and counts) that raises the arm, with the motor direction FORWARD.
+    // -1 = the arm goes up in REVERSE, like the older code raised it. Check on the robot if the motor is swapped.
+    public static final int ELBOW_UP_SIGN = -1;
+
+    // Angle of the arm above horizontal when its encoder reads 0 (resting, all the way down)
+    public static final double ELBOW_REST_ANGLE_DEGREES = -30;
+    public static final double ELBOW_MAX_ANGLE_DEGREES = 160; // Leave some room before the hard stop
+
+    // Profiled position control (see ElbowArmController), degrees
+    public static final double ELBOW_MAX_VELOCITY = 90;        // °/s
+    public static final double ELBOW_MAX_ACCELERATION = 240;   // °/s²
+    public static final double ELBOW_KG = 0.23;     // Power to hold the arm still when horizontal
+    public static final double ELBOW_KV = 0.0067;   // Power per °/s
+    public static final double ELBOW_KA = 0.0007;   // Power per °/s²
+    public static final double ELBOW_KP = 0.05;     // Power per degree off
+    public static final double ELBOW_KI = 0.02;
+    public static final double ELBOW_KD = 0.001;
+    public static final double ELBOW_TOLERANCE_DEGREES = 2;
+
+    //------------------------------------------------------------------------------------------------
+    // Claw
+    //------------------------------------------------------------------------------------------------
+    public static final long CLAW_HOLD_OPEN_MS = 1000; // Long enough for the pixel to fall out
+}
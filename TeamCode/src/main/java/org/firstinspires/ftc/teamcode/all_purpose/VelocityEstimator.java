@@ -0,0 +1,147 @@
+package org.firstinspires.ftc.teamcode.all_purpose;
+
+/**
+ * Estimates the velocity and acceleration of anything with a position (e.g. an encoder),
+ * from the last few (timestamp, position) samples.<br><br>
+ *
+ * Instead of a two-point difference (which is as noisy as the encoder itself), a
+ * parabola is least-squares fitted through the whole sliding window:
+ *
+ *   position(t) ≈ c0 + c1·t + c2·t²        (t in seconds, 0 = newest sample)
+ *
+ *   velocity     = c1      (derivative at t = 0)
+ *   acceleration = 2·c2
+ *
+ * Samples are kept in fixed size primitive ring buffers, and the 3x3 normal equations
+ * are solved directly, so {@link #update(long, double)} never allocates.<br><br>
+ *
+ * The hub also measures velocity itself ({@code DcMotorEx.getVelocity()}), see
+ * {@link #getDiscrepancy(double)} to cross-check the two.
+ */
+public class VelocityEstimator {
+    public static final int DEFAULT_WINDOW_SIZE = 8;
+
+    private final long[] timestamps;
+    private final double[] positions;
+    private int newest = -1;
+    private int count;
+
+    private double velocity;
+    private double acceleration;
+
+    public VelocityEstimator() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param windowSize How many samples to fit over. Bigger is smoother, but lags more.
+     *                   At least 3 for the acceleration to be estimated.
+     */
+    public VelocityEstimator(int windowSize) {
+        if (windowSize < 2)
+            throw new IllegalArgumentException("VelocityEstimator needs a window of at least 2 samples");
+
+        timestamps = new long[windowSize];
+        positions = new double[windowSize];
+    }
+
+    /** @param timestampNanos {@link System#nanoTime()} at which the position was read */
+    public void update(long timestampNanos, double position) {
+        // Same timestamp means the position wasn't actually re-read, it tells us nothing
+        if (count > 0 && timestampNanos <= timestamps[newest])
+            return;
+
+        newest = (newest + 1) % timestamps.length;
+        timestamps[newest] = timestampNanos;
+        positions[newest] = position;
+        if (count < timestamps.length)
+            count++;
+
+        fit();
+    }
+
+    /** Forget every sample, e.g. after an encoder reset. */
+    public void reset() {
+        newest = -1;
+        count = 0;
+        velocity = 0;
+        acceleration = 0;
+    }
+
+    /** @return false until there are enough samples for a meaningful estimate */
+    public boolean isReady() {
+        return count >= Math.min(3, timestamps.length);
+    }
+
+    /** Position units per second */
+    public double getVelocity() {
+        return velocity;
+    }
+
+    /** Position units per second² (0 with a window of only 2 samples) */
+    public double getAcceleration() {
+        return acceleration;
+    }
+
+    /**
+     * Cross-check with another velocity measurement of the same thing, e.g.
+     * {@code DcMotorEx.getVelocity()}. A large discrepancy means one of them is wrong
+     * (missed samples, encoder glitch, ...), or the wheel is slipping.
+     * @return estimate - other, same units as {@link #getVelocity()}
+     */
+    public double getDiscrepancy(double otherVelocity) {
+        return velocity - otherVelocity;
+    }
+
+    private void fit() {
+        if (count < 2) {
+            velocity = 0;
+            acceleration = 0;
+            return;
+        }
+
+        // Sums for the normal equations, with t relative to the newest sample so the
+        // numbers stay small. Positions relative to the newest one, for the same reason.
+        double s1 = 0, s2 = 0, s3 = 0, s4 = 0;
+        double sy = 0, sty = 0, st2y = 0;
+        long newestTime = timestamps[newest];
+        double newestPosition = positions[newest];
+
+        for (int i = 0; i < count; i++) {
+            int index = (newest - i + timestamps.length) % timestamps.length;
+            double t = (timestamps[index] - newestTime) * 1e-9;
+            double y = positions[index] - newestPosition;
+            double t2 = t * t;
+
+            s1 += t;
+            s2 += t2;
+            s3 += t2 * t;
+            s4 += t2 * t2;
+            sy += y;
+            sty += t * y;
+            st2y += t2 * y;
+        }
+
+        double n = count;
+
+        if (count == 2) {
+            // Not enough for a parabola, straight line through both
+            velocity = (n * sty - s1 * sy) / (n * s2 - s1 * s1);
+            acceleration = 0;
+            return;
+        }
+
+        // | n  s1 s2 | |c0|   | sy   |
+        // | s1 s2 s3 | |c1| = | sty  |
+        // | s2 s3 s4 | |c2|   | st2y |     Solved with Cramer's rule
+        double determinant = n * (s2 * s4 - s3 * s3) - s1 * (s1 * s4 - s3 * s2) + s2 * (s1 * s3 - s2 * s2);
+        if (Math.abs(determinant) < 1e-18)
+            return; // Degenerate timing, keep the previous estimate
+
+        double c1 = (n * (sty * s4 - s3 * st2y) - sy * (s1 * s4 - s3 * s2) + s2 * (s1 * st2y - sty * s2)) / determinant;
+        double c2 = (n * (s2 * st2y - sty * s3) - s1 * (s1 * st2y - sty * s2) + sy * (s1 * s3 - s2 * s2)) / determinant;
+
+        velocity = c1;
+        acceleration = 2 * c2;
+    }
+}
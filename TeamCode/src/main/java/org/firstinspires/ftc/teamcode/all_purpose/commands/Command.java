@@ -0,0 +1,26 @@
+package org.firstinspires.ftc.teamcode.all_purpose.commands;
+
+/**
+ * One thing the robot does over time (drive somewhere, raise the arm, wait..), split
+ * into small steps so it never blocks, and many commands can run at once.<br><br>
+ *
+ * Lifecycle, driven by the {@link CommandScheduler} once per control cycle:
+ *
+ * <pre>
+ *   initialize()                       once, on the first cycle
+ *   execute() -> isFinished()?         every cycle, until finished
+ *   end(interrupted)                   once, interrupted = cancelled / timed out
+ * </pre>
+ *
+ * execute() must return quickly (no sleep(), no while loops), the whole point is that
+ * every running command gets a turn every cycle. Commands are single-use.
+ */
+public interface Command {
+    default void initialize() {}
+
+    void execute();
+
+    boolean isFinished();
+
+    default void end(boolean interrupted) {}
+}
@@ -0,0 +1,67 @@
+package org.firstinspires.ftc.teamcode.all_purpose.commands;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs every scheduled {@link Command} one step per {@link #run()}, from a single loop:
+ *
+ * <pre>
+ *   scheduler.schedule(Commands.sequence(..));
+ *   while (opModeIsActive() && !scheduler.isIdle()) {
+ *       robot.refresh();   // Read the sensors once
+ *       scheduler.run();   // Every command reacts to them
+ *   }
+ * </pre>
+ *
+ * Use the groups in {@link Commands} to run things one after another or at the same
+ * time, the scheduler itself doesn't care about order.
+ * Nothing is allocated per cycle, only schedule() grows the lists when they're full.
+ * NOT thread-safe, use it from the OpMode thread only.
+ */
+public class CommandScheduler {
+    private final List<Command> commands = new ArrayList<>();
+    private boolean[] initialized = new boolean[8]; // Same index as commands
+
+    public void schedule(Command command) {
+        if (commands.size() == initialized.length)
+            initialized = Arrays.copyOf(initialized, initialized.length * 2);
+
+        initialized[commands.size()] = false;
+        commands.add(command);
+    }
+
+    /** One step of every scheduled command. Finished ones are ended and removed. */
+    public void run() {
+        for (int i = 0; i < commands.size(); i++) {
+            Command command = commands.get(i);
+
+            if (!initialized[i]) {
+                command.initialize();
+                initialized[i] = true;
+            }
+
+            command.execute();
+            if (command.isFinished()) {
+                command.end(false);
+                commands.remove(i);
+                System.arraycopy(initialized, i + 1, initialized, i, commands.size() - i);
+                i--;
+            }
+        }
+    }
+
+    /** Ends every running command as interrupted, e.g. when the OpMode stops. */
+    public void cancelAll() {
+        for (int i = 0; i < commands.size(); i++)
+            if (initialized[i])
+                commands.get(i).end(true);
+
+        commands.clear();
+    }
+
+    public boolean isIdle() {
+        return commands.isEmpty();
+    }
+}
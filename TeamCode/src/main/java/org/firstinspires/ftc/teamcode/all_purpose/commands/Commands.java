@@ -0,0 +1,48 @@
+package org.firstinspires.ftc.teamcode.all_purpose.commands;
+
+/**
+ * Short names for building routines (with {@code import static ...Commands.*}), e.g.
+ *
+ * <pre>
+ *   sequence(
+ *       deadline(driveCommand(1.4), elbowCommand(80)),  // Drive, raising the arm on the way
+ *       withTimeout(turnCommand(-90), 2000),
+ *       waitMs(250)
+ *   )
+ * </pre>
+ */
+public class Commands {
+    public static Command sequence(Command... commands) {
+        return new SequentialCommandGroup(commands);
+    }
+
+    /** Every command at once, until they've all finished */
+    public static Command parallel(Command... commands) {
+        return new ParallelCommandGroup(ParallelCommandGroup.Mode.ALL, commands);
+    }
+
+    /** Every command at once, until any one of them finishes */
+    public static Command race(Command... commands) {
+        return new ParallelCommandGroup(ParallelCommandGroup.Mode.RACE, commands);
+    }
+
+    /** Every command at once, until the deadline finishes */
+    public static Command deadline(Command deadline, Command... others) {
+        Command[] commands = new Command[others.length + 1];
+        commands[0] = deadline;
+        System.arraycopy(others, 0, commands, 1, others.length);
+        return new ParallelCommandGroup(ParallelCommandGroup.Mode.DEADLINE, commands);
+    }
+
+    public static Command withTimeout(Command command, long timeoutMs) {
+        return new TimeoutCommand(command, timeoutMs);
+    }
+
+    public static Command waitMs(long durationMs) {
+        return new WaitCommand(durationMs);
+    }
+
+    public static Command instant(Runnable action) {
+        return new InstantCommand(action);
+    }
+}
@@ -0,0 +1,214 @@
+package org.firstinspires.ftc.teamcode.all_purpose.commands;
+
+import org.firstinspires.ftc.teamcode.all_purpose.Misc;
+import org.firstinspires.ftc.teamcode.all_purpose.RobotConstants;
+import org.firstinspires.ftc.teamcode.all_purpose.control.MecanumMixer;
+import org.firstinspires.ftc.teamcode.all_purpose.control.PIDFController;
+import org.firstinspires.ftc.teamcode.all_purpose.hardware.DriveMotors;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.MecanumOdometry;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.MotionProfile;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.Pose2d;
+
+/**
+ * Straight to a field pose, translating and turning at the same time, the mecanum way.
+ * One diagonal move instead of drive, turn, drive:
+ *
+ * <pre>
+ *   drive, turn, drive          driveTo
+ *         *                           *
+ *         |                          /
+ *         |                         /
+ *   o-----+                        o
+ * </pre>
+ *
+ * Two motion profiles run side by side: an S-curve along the straight line from the start
+ * to the target, and a trapezoidal one for the heading (the short way around). Each cycle,
+ * both are turned into power with the same feedforward + feedback as
+ * {@link ProfiledDriveCommand} and {@link ProfiledTurnCommand}, in the FIELD frame, then
+ * rotated into the robot frame with the measured heading and mixed:
+ *
+ * <pre>
+ *   field     Fx = KS·ux + (KV·v + KA·a)·ux + KP·(planned x - x)       u = unit vector
+ *             Fy = KS·uy + (KV·v + KA·a)·uy + KP·(planned y - y)           to the target
+ *   robot     vx =  Fx·cos(θ) + Fy·sin(θ)
+ *             vy = -Fx·sin(θ) + Fy·cos(θ)
+ * </pre>
+ *
+ * The {@link MecanumMixer} turns vx, vy and the turn into wheel powers. If any wheel would
+ * go over full power, all four are scaled down together (PRESERVE_RATIO), so the robot
+ * still goes the right way (just a little late, which the feedback then catches up on).<br><br>
+ *
+ * Finishes once both profiles are over and the robot is within the position and
+ * heading tolerances of the target, or {@link #SETTLE_TIMEOUT_SECONDS} after the profiles.
+ */
+public class DriveToCommand implements Command {
+    public static final double SETTLE_TIMEOUT_SECONDS = 0.5;
+    public static final double HEADING_TOLERANCE_DEGREES = 2;
+
+    private final DriveMotors drive;
+    private final MecanumOdometry odometry;
+    private final double targetX, targetY, targetHeading; // Meters, degrees counter-clockwise
+    private final boolean planned;
+
+    private final PIDFController positionXController = PIDFController.position(RobotConstants.DRIVE_KP, 0, 0);
+    private final PIDFController positionYController = PIDFController.position(RobotConstants.DRIVE_KP, 0, 0);
+    private final PIDFController headingController =
+            PIDFController.heading(RobotConstants.TURN_KP, 0, RobotConstants.TURN_KD)
+                    .setDerivativeFilter(0.05);
+
+    private final double[] wheelPowers = new double[DriveMotors.WHEEL_COUNT];
+    private MotionProfile translation;
+    private MotionProfile rotation;
+    private double startX, startY, startHeading;
+    private double directionX, directionY;
+    private long startNanos;
+    private long lastUpdateNanos;
+    private double distanceToTarget;
+    private double headingToTarget;
+
+    /**
+     * Planned right at the start, from wherever the robot is then.
+     * @param headingDegrees Field heading to end at, counter-clockwise positive
+     */
+    public static DriveToCommand absolute(DriveMotors drive, MecanumOdometry odometry,
+                                          double x, double y, double headingDegrees) {
+        return new DriveToCommand(drive, odometry, new Pose2d(x, y, Math.toRadians(headingDegrees)), null, null, null);
+    }
+
+    /**
+     * Follows profiles planned in advance (see {@link #createTranslationProfile(double)},
+     * {@link #createRotationProfile(double)}), from a known pose, where the previous step
+     * should have left the robot. Any error from before is corrected too.
+     */
+    public static DriveToCommand planned(DriveMotors drive, MecanumOdometry odometry, Pose2d start, Pose2d target,
+                                         MotionProfile translation, MotionProfile rotation) {
+        return new DriveToCommand(drive, odometry, target, start, translation, rotation);
+    }
+
+    private DriveToCommand(DriveMotors drive, MecanumOdometry odometry, Pose2d target,
+                           Pose2d plannedStart, MotionProfile plannedTranslation, MotionProfile plannedRotation) {
+        this.drive = drive;
+        this.odometry = odometry;
+        this.targetX = target.x;
+        this.targetY = target.y;
+        this.targetHeading = target.getHeadingDegrees();
+        this.planned = plannedStart != null;
+
+        if (planned) {
+            setStart(plannedStart.x, plannedStart.y, plannedStart.getHeadingDegrees());
+            translation = plannedTranslation;
+            rotation = plannedRotation;
+        }
+    }
+
+    /** Meters along the straight line */
+    public static MotionProfile createTranslationProfile(double distance) {
+        return MotionProfile.sCurve(
+                distance,
+                RobotConstants.MAX_DRIVE_VELOCITY,
+                RobotConstants.MAX_DRIVE_ACCELERATION,
+                RobotConstants.MAX_DRIVE_JERK);
+    }
+
+    /** Degrees, counter-clockwise positive */
+    public static MotionProfile createRotationProfile(double angle) {
+        return ProfiledTurnCommand.createProfile(angle);
+    }
+
+    @Override
+    public void initialize() {
+        if (!planned) { // Only now do we know from where
+            setStart(odometry.getX(), odometry.getY(), Math.toDegrees(odometry.getHeading()));
+            translation = createTranslationProfile(Math.hypot(targetX - startX, targetY - startY));
+            rotation = createRotationProfile(Misc.wrapDegrees(targetHeading - startHeading));
+        }
+
+        positionXController.reset();
+        positionYController.reset();
+        headingController.reset();
+        distanceToTarget = Double.POSITIVE_INFINITY;
+        headingToTarget = Double.POSITIVE_INFINITY;
+        startNanos = System.nanoTime();
+        lastUpdateNanos = startNanos;
+    }
+
+    private void setStart(double x, double y, double headingDegrees) {
+        startX = x;
+        startY = y;
+        startHeading = headingDegrees;
+
+        double length = Math.hypot(targetX - x, targetY - y);
+        directionX = length > 1e-6 ? (targetX - x) / length : 0;
+        directionY = length > 1e-6 ? (targetY - y) / length : 0;
+    }
+
+    @Override
+    public void execute() {
+        long now = System.nanoTime();
+        double dt = (now - lastUpdateNanos) * 1e-9;
+        lastUpdateNanos = now;
+
+        double x = odometry.getX();
+        double y = odometry.getY();
+        double heading = odometry.getHeading();
+        double headingDegrees = Math.toDegrees(heading);
+        distanceToTarget = Math.hypot(targetX - x, targetY - y);
+        headingToTarget = Misc.wrapDegrees(targetHeading - headingDegrees);
+
+        // Translation, field frame
+        double t = getElapsedSeconds();
+        double s = translation.getPosition(t);
+        double velocity = translation.getVelocity(t);
+        double feedforward = RobotConstants.DRIVE_KS * Math.signum(velocity)
+                + RobotConstants.DRIVE_KV * velocity
+                + RobotConstants.DRIVE_KA * translation.getAcceleration(t);
+        double fieldX = feedforward * directionX + positionXController.update(startX + directionX * s, x, dt);
+        double fieldY = feedforward * directionY + positionYController.update(startY + directionY * s, y, dt);
+
+        // Field -> robot frame
+        double cos = Math.cos(heading);
+        double sin = Math.sin(heading);
+        double powerX =  fieldX * cos + fieldY * sin;
+        double powerY = -fieldX * sin + fieldY * cos;
+
+        // Rotation
+        double angularVelocity = rotation.getVelocity(t);
+        double turn = RobotConstants.TURN_KS * Math.signum(angularVelocity)
+                + RobotConstants.TURN_KV * angularVelocity
+                + RobotConstants.TURN_KA * rotation.getAcceleration(t)
+                + headingController.update(startHeading + rotation.getPosition(t), headingDegrees, dt);
+
+        // y left + and turn counter-clockwise + are the mixer's strafe and rotate, negated.
+        // Scaled down together, so the direction stays right.
+        MecanumMixer.mix(powerX, -powerY, -turn, MecanumMixer.Normalization.PRESERVE_RATIO, wheelPowers);
+        drive.setPowers(
+                wheelPowers[DriveMotors.FRONT_LEFT], wheelPowers[DriveMotors.FRONT_RIGHT],
+                wheelPowers[DriveMotors.BACK_LEFT],  wheelPowers[DriveMotors.BACK_RIGHT]);
+    }
+
+    @Override
+    public boolean isFinished() {
+        double t = getElapsedSeconds();
+        double duration = getDuration();
+        if (t < duration)
+            return false;
+
+        boolean settled = distanceToTarget <= RobotConstants.DRIVE_POSITION_TOLERANCE_METERS
+                && Math.abs(headingToTarget) <= HEADING_TOLERANCE_DEGREES;
+        return settled || t >= duration + SETTLE_TIMEOUT_SECONDS;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        drive.setPowers(0, 0, 0, 0);
+    }
+
+    /** Seconds, the longer of the two profiles. Once planned. */
+    public double getDuration() {
+        return Math.max(translation.getDuration(), rotation.getDuration());
+    }
+
+    private double getElapsedSeconds() {
+        return (System.nanoTime() - startNanos) * 1e-9;
+    }
+}
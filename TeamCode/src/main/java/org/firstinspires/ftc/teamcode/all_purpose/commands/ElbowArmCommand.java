@@ -0,0 +1,71 @@
+package org.firstinspires.ftc.teamcode.all_purpose.commands;
+
+import org.firstinspires.ftc.teamcode.all_purpose.control.ElbowArmController;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.MotionProfile;
+
+/**
+ * Gives the {@link ElbowArmController} a new target, then waits for the arm to get there.
+ * The controller does the actual moving (and keeps holding the arm afterwards, this
+ * ending doesn't let go of it).<br><br>
+ *
+ * Finishes at the target, or {@link #SETTLE_TIMEOUT_SECONDS} after the planned move,
+ * so an arm that can't get there (blocked, low battery) doesn't stall the routine.
+ */
+public class ElbowArmCommand implements Command {
+    public static final double SETTLE_TIMEOUT_SECONDS = 1.0;
+
+    private final ElbowArmController controller;
+    private final double degrees;
+    private final boolean relative;
+    private final MotionProfile plannedProfile;
+    private long doneMovingNanos;
+
+    /** @param degrees From the current target, positive = up */
+    public static ElbowArmCommand relative(ElbowArmController controller, double degrees) {
+        return new ElbowArmCommand(controller, degrees, true, null);
+    }
+
+    /** @param angle Degrees above horizontal */
+    public static ElbowArmCommand absolute(ElbowArmController controller, double angle) {
+        return new ElbowArmCommand(controller, angle, false, null);
+    }
+
+    /**
+     * Follows a profile planned in advance (see ElbowArmController.createProfile()), nothing
+     * is computed when it starts.
+     * @param startAngle Degrees above horizontal, where the profile starts
+     */
+    public static ElbowArmCommand planned(ElbowArmController controller, double startAngle, MotionProfile profile) {
+        return new ElbowArmCommand(controller, startAngle, false, profile);
+    }
+
+    private ElbowArmCommand(ElbowArmController controller, double degrees, boolean relative, MotionProfile plannedProfile) {
+        this.controller = controller;
+        this.degrees = degrees;
+        this.relative = relative;
+        this.plannedProfile = plannedProfile;
+    }
+
+    @Override
+    public void initialize() {
+        if (plannedProfile != null)
+            controller.follow(degrees, plannedProfile);
+        else if (relative)
+            controller.moveBy(degrees);
+        else
+            controller.setTargetAngle(degrees);
+        doneMovingNanos = 0;
+    }
+
+    @Override
+    public void execute() {
+        if (doneMovingNanos == 0 && !controller.isMoving())
+            doneMovingNanos = System.nanoTime();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return controller.isAtTarget()
+                || (doneMovingNanos != 0 && (System.nanoTime() - doneMovingNanos) * 1e-9 >= SETTLE_TIMEOUT_SECONDS);
+    }
+}
@@ -0,0 +1,20 @@
+package org.firstinspires.ftc.teamcode.all_purpose.commands;
+
+/** Runs the action once, and is immediately finished. E.g. setting a servo position. */
+public class InstantCommand implements Command {
+    private final Runnable action;
+
+    public InstantCommand(Runnable action) {
+        this.action = action;
+    }
+
+    @Override
+    public void execute() {
+        action.run();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return true;
+    }
+}
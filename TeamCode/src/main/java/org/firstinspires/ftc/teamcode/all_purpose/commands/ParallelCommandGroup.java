@@ -0,0 +1,84 @@
+package org.firstinspires.ftc.teamcode.all_purpose.commands;
+
+/**
+ * Runs its commands at the same time, e.g. driving while the arm is raised.
+ *
+ * <pre>
+ *   ALL       Finishes once every command has finished
+ *   RACE      Finishes as soon as any command finishes, the rest are interrupted
+ *   DEADLINE  Finishes when the FIRST command finishes, the rest are interrupted
+ * </pre>
+ */
+public class ParallelCommandGroup implements Command {
+    public enum Mode {
+        ALL,
+        RACE,
+        DEADLINE
+    }
+
+    private final Mode mode;
+    private final Command[] commands;
+    private final boolean[] running;
+    private boolean finished;
+
+    public ParallelCommandGroup(Mode mode, Command... commands) {
+        this.mode = mode;
+        this.commands = commands;
+        this.running = new boolean[commands.length];
+    }
+
+    @Override
+    public void initialize() {
+        finished = commands.length == 0;
+        for (int i = 0; i < commands.length; i++) {
+            commands[i].initialize();
+            running[i] = true;
+        }
+    }
+
+    @Override
+    public void execute() {
+        boolean anyRunning = false;
+
+        for (int i = 0; i < commands.length; i++) {
+            if (!running[i])
+                continue;
+
+            commands[i].execute();
+            if (commands[i].isFinished()) {
+                commands[i].end(false);
+                running[i] = false;
+
+                if (mode == Mode.RACE || (mode == Mode.DEADLINE && i == 0)) {
+                    interruptRunning();
+                    finished = true;
+                    return;
+                }
+            } else {
+                anyRunning = true;
+            }
+        }
+
+        finished = !anyRunning;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        if (interrupted)
+            interruptRunning();
+    }
+
+    private void interruptRunning() {
+        for (int i = 0; i < commands.length; i++) {
+            if (running[i]) {
+                commands[i].end(true);
+                running[i] = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package org.firstinspires.ftc.teamcode.all_purpose.commands;
+
+import org.firstinspires.ftc.teamcode.all_purpose.Misc;
+import org.firstinspires.ftc.teamcode.all_purpose.RobotConstants;
+import org.firstinspires.ftc.teamcode.all_purpose.control.MecanumMixer;
+import org.firstinspires.ftc.teamcode.all_purpose.control.PIDFController;
+import org.firstinspires.ftc.teamcode.all_purpose.hardware.DriveMotors;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.MecanumOdometry;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.SplinePath;
+
+/**
+ * Follows a {@link SplinePath} in one continuous move with pure pursuit, turning to the
+ * final heading on the way. No stopping at the waypoints, no turning on the spot.<br><br>
+ *
+ * Every cycle, from where the odometry says the robot is:
+ * <pre>
+ *   1. Find the closest point on the path (only looking ahead of the last one)
+ *   2. Aim at the point LOOKAHEAD meters further along the path     path  ___*___ <- aim
+ *   3. Drive straight at it (mecanum, so the robot can face            _.´
+ *      anywhere while doing so), as fast as the path allows      ____.´  o <- robot
+ * </pre>
+ *
+ * Aiming ahead is what pulls the robot back onto the path when it's off, smoothly.
+ * The speed comes from the path's precomputed limits (slower in curves, braking for
+ * the end), ramped up at MAX_DRIVE_ACCELERATION, then turned into wheel powers with
+ * the same feedforward as {@link ProfiledDriveCommand}, and mixed by the {@link MecanumMixer}
+ * (ratio preserved, so the robot still heads for the aim point when a wheel saturates).
+ *
+ * The heading follows a straight blend from the starting heading to the final one,
+ * along the path, with the heading PIDF.<br><br>
+ *
+ * Finishes within the position and heading tolerances of the end, or
+ * {@link #SETTLE_TIMEOUT_SECONDS} after reaching the end of the path.
+ */
+public class PathFollowCommand implements Command {
+    public static final double SETTLE_TIMEOUT_SECONDS = 0.5;
+    public static final double HEADING_TOLERANCE_DEGREES = 2;
+
+    private final DriveMotors drive;
+    private final MecanumOdometry odometry;
+    private final SplinePath path;
+    private final double endHeading;
+
+    private final PIDFController headingController =
+            PIDFController.heading(RobotConstants.HEADING_KP, RobotConstants.HEADING_KI, RobotConstants.HEADING_KD)
+                    .setIntegralLimit(RobotConstants.HEADING_MAX_CORRECTION / 2)
+                    .setDerivativeFilter(0.05)
+                    .setOutputLimits(-RobotConstants.HEADING_MAX_CORRECTION, RobotConstants.HEADING_MAX_CORRECTION);
+
+    private final double[] wheelPowers = new double[DriveMotors.WHEEL_COUNT];
+    private double startHeading;
+    private int closestSample;
+    private double speed;
+    private double distanceToEnd;
+    private long lastUpdateNanos;
+    private long reachedEndNanos;
+
+    /** @param endHeadingDegrees Field heading to end at, counter-clockwise positive */
+    public PathFollowCommand(DriveMotors drive, MecanumOdometry odometry, SplinePath path, double endHeadingDegrees) {
+        this.drive = drive;
+        this.odometry = odometry;
+        this.path = path;
+        this.endHeading = endHeadingDegrees;
+    }
+
+    @Override
+    public void initialize() {
+        startHeading = Math.toDegrees(odometry.getHeading());
+        closestSample = 0;
+        speed = 0;
+        distanceToEnd = Double.POSITIVE_INFINITY;
+        reachedEndNanos = 0;
+        headingController.reset();
+        lastUpdateNanos = System.nanoTime();
+    }
+
+    @Override
+    public void execute() {
+        long now = System.nanoTime();
+        double dt = (now - lastUpdateNanos) * 1e-9;
+        lastUpdateNanos = now;
+
+        double x = odometry.getX();
+        double y = odometry.getY();
+        double heading = odometry.getHeading();
+
+        // Where we are along the path, and where to aim
+        closestSample = path.findClosestSample(x, y, closestSample, RobotConstants.PATH_LOOKAHEAD_METERS * 2);
+        double progress = path.getSampleDistance(closestSample);
+        double aimDistance = progress + RobotConstants.PATH_LOOKAHEAD_METERS;
+        double dx = path.getX(aimDistance) - x;
+        double dy = path.getY(aimDistance) - y;
+        double aimLength = Math.hypot(dx, dy);
+
+        distanceToEnd = Math.hypot(path.getX(path.getLength()) - x, path.getY(path.getLength()) - y);
+        if (closestSample == path.getSampleCount() - 1 && reachedEndNanos == 0)
+            reachedEndNanos = now;
+
+        // As fast as the path allows, ramped up, and still pulled in when it says 0 at the very end
+        double targetSpeed = Math.max(path.getMaxVelocity(progress), RobotConstants.DRIVE_KP * distanceToEnd);
+        targetSpeed = Math.min(targetSpeed, RobotConstants.MAX_DRIVE_VELOCITY);
+        speed = Math.min(targetSpeed, speed + RobotConstants.MAX_DRIVE_ACCELERATION * dt);
+
+        // Field -> robot frame
+        double fieldVx = aimLength > 1e-6 ? dx / aimLength * speed : 0;
+        double fieldVy = aimLength > 1e-6 ? dy / aimLength * speed : 0;
+        double cos = Math.cos(heading);
+        double sin = Math.sin(heading);
+        double vx =  fieldVx * cos + fieldVy * sin;
+        double vy = -fieldVx * sin + fieldVy * cos;
+
+        // Static friction is overcome along the direction of travel, not per axis
+        double powerPerVelocity = RobotConstants.DRIVE_KV + (speed > 1e-6 ? RobotConstants.DRIVE_KS / speed : 0);
+        double powerX = powerPerVelocity * vx;
+        double powerY = powerPerVelocity * vy;
+
+        double fraction = path.getLength() > 0 ? progress / path.getLength() : 1;
+        double targetHeading = startHeading + Misc.wrapDegrees(endHeading - startHeading) * fraction;
+        double turn = headingController.update(targetHeading, Math.toDegrees(heading), dt);
+
+        // y left + and turn counter-clockwise + are the mixer's strafe and rotate, negated.
+        // Scaled down together, so the direction stays right.
+        MecanumMixer.mix(powerX, -powerY, -turn, MecanumMixer.Normalization.PRESERVE_RATIO, wheelPowers);
+        drive.setPowers(
+                wheelPowers[DriveMotors.FRONT_LEFT], wheelPowers[DriveMotors.FRONT_RIGHT],
+                wheelPowers[DriveMotors.BACK_LEFT],  wheelPowers[DriveMotors.BACK_RIGHT]);
+    }
+
+    @Override
+    public boolean isFinished() {
+        if (reachedEndNanos == 0)
+            return false;
+
+        boolean settled = distanceToEnd <= RobotConstants.DRIVE_POSITION_TOLERANCE_METERS
+                && Math.abs(headingController.getError()) <= HEADING_TOLERANCE_DEGREES;
+        return settled || (System.nanoTime() - reachedEndNanos) * 1e-9 >= SETTLE_TIMEOUT_SECONDS;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        drive.setPowers(0, 0, 0, 0);
+    }
+}
@@ -0,0 +1,147 @@
+package org.firstinspires.ftc.teamcode.all_purpose.commands;
+
+import org.firstinspires.ftc.teamcode.all_purpose.RobotConstants;
+import org.firstinspires.ftc.teamcode.all_purpose.control.PIDFController;
+import org.firstinspires.ftc.teamcode.all_purpose.hardware.DriveMotors;
+import org.firstinspires.ftc.teamcode.all_purpose.hardware.RobotSensors;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.MotionProfile;
+
+/**
+ * Drives straight forward (or back), or strafes left (or right), following a
+ * precomputed {@link MotionProfile}.<br><br>
+ *
+ * The profile says where the robot should be, and how fast / hard it should be
+ * accelerating right now. Feedforward turns that into the power it should take, and a
+ * little feedback on the position error corrects for everything else:
+ *
+ *   power = KS·sign(v) + KV·v + KA·a + KP·(planned position - measured position)
+ *
+ * While driving, the heading it started with is held with a heading PIDF (when given
+ * the sensors), so the robot drives straight even if one side pulls:
+ *
+ *   left  = power - correction
+ *   right = power + correction      (heading is counter-clockwise positive)
+ *
+ * Strafing is the same, with the mecanum strafe mix (FL -, FR +, BL +, BR -) and the
+ * distance measured the same way round.
+ *
+ * Finishes once the profile is over and the robot is within the tolerance, or
+ * {@link #SETTLE_TIMEOUT_SECONDS} after the profile, whichever comes first.
+ */
+public class ProfiledDriveCommand implements Command {
+    public static final double SETTLE_TIMEOUT_SECONDS = 0.5;
+
+    public enum Axis {
+        FORWARD,
+        LEFT
+    }
+
+    private final DriveMotors drive;
+    private final RobotSensors sensors;
+    private final MotionProfile profile;
+    private final Axis axis;
+
+    private final PIDFController positionController =
+            PIDFController.position(RobotConstants.DRIVE_KP, 0, 0);
+    private final PIDFController headingController =
+            PIDFController.heading(RobotConstants.HEADING_KP, RobotConstants.HEADING_KI, RobotConstants.HEADING_KD)
+                    .setIntegralLimit(RobotConstants.HEADING_MAX_CORRECTION / 2)
+                    .setDerivativeFilter(0.05)
+                    .setOutputLimits(-RobotConstants.HEADING_MAX_CORRECTION, RobotConstants.HEADING_MAX_CORRECTION);
+
+    private long startNanos;
+    private long lastUpdateNanos;
+    private double targetHeading;
+    private double error;
+
+    /** @param sensors For holding the heading, null = don't */
+    public ProfiledDriveCommand(DriveMotors drive, RobotSensors sensors, MotionProfile profile) {
+        this(drive, sensors, profile, Axis.FORWARD);
+    }
+
+    /** @param axis Which way positive distances go, forward or left */
+    public ProfiledDriveCommand(DriveMotors drive, RobotSensors sensors, MotionProfile profile, Axis axis) {
+        this.drive = drive;
+        this.sensors = sensors;
+        this.profile = profile;
+        this.axis = axis;
+    }
+
+    @Override
+    public void initialize() {
+        drive.resetEncoders();
+        positionController.reset();
+        headingController.reset();
+        if (sensors != null)
+            targetHeading = sensors.getHeading();
+
+        startNanos = System.nanoTime();
+        lastUpdateNanos = startNanos;
+    }
+
+    @Override
+    public void execute() {
+        long now = System.nanoTime();
+        double dt = (now - lastUpdateNanos) * 1e-9;
+        lastUpdateNanos = now;
+
+        double t = getElapsedSeconds();
+        double velocity = profile.getVelocity(t);
+        double acceleration = profile.getAcceleration(t);
+        double feedback = positionController.update(profile.getPosition(t), getMeters(), dt);
+        error = positionController.getError();
+
+        double power = RobotConstants.DRIVE_KS * Math.signum(velocity)
+                + RobotConstants.DRIVE_KV * velocity
+                + RobotConstants.DRIVE_KA * acceleration
+                + feedback;
+
+        double correction = sensors != null
+                ? headingController.update(targetHeading, sensors.getHeading(), dt)
+                : 0;
+
+        if (axis == Axis.FORWARD) {
+            double left  = Math.max(-1, Math.min(1, power - correction));
+            double right = Math.max(-1, Math.min(1, power + correction));
+            drive.setPowers(left, right, left, right);
+        } else {
+            drive.setPowers(
+                    Math.max(-1, Math.min(1, -power - correction)),
+                    Math.max(-1, Math.min(1,  power + correction)),
+                    Math.max(-1, Math.min(1,  power - correction)),
+                    Math.max(-1, Math.min(1, -power + correction)));
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        double t = getElapsedSeconds();
+        if (t < profile.getDuration())
+            return false;
+
+        return Math.abs(error) <= RobotConstants.DRIVE_POSITION_TOLERANCE_METERS
+                || t >= profile.getDuration() + SETTLE_TIMEOUT_SECONDS;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        drive.setPowers(0, 0, 0, 0);
+    }
+
+    private double getElapsedSeconds() {
+        return (System.nanoTime() - startNanos) * 1e-9;
+    }
+
+    /** Along the axis, mecanum forward kinematics */
+    private double getMeters() {
+        double frontLeft  = drive.getCounts(DriveMotors.FRONT_LEFT);
+        double frontRight = drive.getCounts(DriveMotors.FRONT_RIGHT);
+        double backLeft   = drive.getCounts(DriveMotors.BACK_LEFT);
+        double backRight  = drive.getCounts(DriveMotors.BACK_RIGHT);
+
+        double counts = axis == Axis.FORWARD
+                ? (frontLeft + frontRight + backLeft + backRight) / 4
+                : (-frontLeft + frontRight + backLeft - backRight) / 4;
+        return counts / RobotConstants.TICKS_PER_METER;
+    }
+}
@@ -0,0 +1,143 @@
+package org.firstinspires.ftc.teamcode.all_purpose.commands;
+
+import org.firstinspires.ftc.teamcode.all_purpose.Misc;
+import org.firstinspires.ftc.teamcode.all_purpose.RobotConstants;
+import org.firstinspires.ftc.teamcode.all_purpose.control.PIDFController;
+import org.firstinspires.ftc.teamcode.all_purpose.hardware.DriveMotors;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.MecanumOdometry;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.MotionProfile;
+
+/**
+ * Turns on the spot following a trapezoidal angular {@link MotionProfile}, the turning
+ * version of {@link ProfiledDriveCommand}:
+ *
+ *   turn = KS·sign(ω) + KV·ω + KA·α + PID(planned heading - measured heading)
+ *
+ *   left  = -turn
+ *   right = +turn      (counter-clockwise positive)
+ *
+ * The heading comes from the odometry (IMU fused), which is never reset, so targets can
+ * be absolute (a field heading) or relative (from wherever the robot is). Either way
+ * the robot goes the short way around, and ±180° is just another angle:
+ * the error is always wrapped, nothing compares raw headings.<br><br>
+ *
+ * Done once it has settled: after the profile, within TURN_TOLERANCE_DEGREES and slower
+ * than TURN_RATE_TOLERANCE for {@link #SETTLE_CYCLES} cycles in a row. Or
+ * {@link #SETTLE_TIMEOUT_SECONDS} after the profile, whichever comes first.
+ */
+public class ProfiledTurnCommand implements Command {
+    public static final int SETTLE_CYCLES = 5;
+    public static final double SETTLE_TIMEOUT_SECONDS = 0.5;
+
+    private final DriveMotors drive;
+    private final MecanumOdometry odometry;
+    private final double degrees;
+    private final boolean absolute;
+    private final boolean planned;
+
+    private final PIDFController headingController =
+            PIDFController.heading(RobotConstants.TURN_KP, 0, RobotConstants.TURN_KD)
+                    .setDerivativeFilter(0.05);
+
+    private MotionProfile profile;
+    private double startHeading;
+    private long startNanos;
+    private long lastUpdateNanos;
+    private int settledCycles;
+
+    /** @param degrees From the current heading, counter-clockwise positive */
+    public static ProfiledTurnCommand relative(DriveMotors drive, MecanumOdometry odometry, double degrees) {
+        return new ProfiledTurnCommand(drive, odometry, degrees, false, null);
+    }
+
+    /** @param heading Field heading to end at, degrees, counter-clockwise positive */
+    public static ProfiledTurnCommand absolute(DriveMotors drive, MecanumOdometry odometry, double heading) {
+        return new ProfiledTurnCommand(drive, odometry, heading, true, null);
+    }
+
+    /**
+     * Follows a profile planned in advance, from a known field heading (where the previous
+     * step should have left the robot), so any error from before is corrected too.
+     * @param startHeading Degrees, counter-clockwise positive
+     */
+    public static ProfiledTurnCommand planned(DriveMotors drive, MecanumOdometry odometry, double startHeading, MotionProfile profile) {
+        return new ProfiledTurnCommand(drive, odometry, startHeading, true, profile);
+    }
+
+    private ProfiledTurnCommand(DriveMotors drive, MecanumOdometry odometry, double degrees, boolean absolute,
+                                MotionProfile plannedProfile) {
+        this.drive = drive;
+        this.odometry = odometry;
+        this.degrees = degrees;
+        this.absolute = absolute;
+        this.planned = plannedProfile != null;
+
+        // The angle is known in advance, plan it now (during init)
+        if (planned)
+            profile = plannedProfile;
+        else if (!absolute)
+            profile = createProfile(degrees);
+    }
+
+    /** Counter-clockwise positive, degrees */
+    public static MotionProfile createProfile(double angle) {
+        return MotionProfile.trapezoidal(angle, RobotConstants.MAX_TURN_VELOCITY, RobotConstants.MAX_TURN_ACCELERATION);
+    }
+
+    @Override
+    public void initialize() {
+        if (planned) {
+            startHeading = degrees;
+        } else {
+            startHeading = Math.toDegrees(odometry.getHeading());
+            if (absolute)
+                profile = createProfile(Misc.wrapDegrees(degrees - startHeading)); // Only now do we know how far
+        }
+
+        headingController.reset();
+        settledCycles = 0;
+        startNanos = System.nanoTime();
+        lastUpdateNanos = startNanos;
+    }
+
+    @Override
+    public void execute() {
+        long now = System.nanoTime();
+        double dt = (now - lastUpdateNanos) * 1e-9;
+        lastUpdateNanos = now;
+
+        double t = getElapsedSeconds();
+        double velocity = profile.getVelocity(t);
+        double feedback = headingController.update(
+                startHeading + profile.getPosition(t),
+                Math.toDegrees(odometry.getHeading()),
+                dt);
+
+        double turn = RobotConstants.TURN_KS * Math.signum(velocity)
+                + RobotConstants.TURN_KV * velocity
+                + RobotConstants.TURN_KA * profile.getAcceleration(t)
+                + feedback;
+        turn = Math.max(-1, Math.min(1, turn));
+        drive.setPowers(-turn, turn, -turn, turn);
+
+        boolean settled = t >= profile.getDuration()
+                && Math.abs(headingController.getError()) <= RobotConstants.TURN_TOLERANCE_DEGREES
+                && Math.abs(Math.toDegrees(odometry.getAngularVelocity())) <= RobotConstants.TURN_RATE_TOLERANCE;
+        settledCycles = settled ? settledCycles + 1 : 0;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return settledCycles >= SETTLE_CYCLES
+                || getElapsedSeconds() >= profile.getDuration() + SETTLE_TIMEOUT_SECONDS;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        drive.setPowers(0, 0, 0, 0);
+    }
+
+    private double getElapsedSeconds() {
+        return (System.nanoTime() - startNanos) * 1e-9;
+    }
+}
@@ -0,0 +1,48 @@
+package org.firstinspires.ftc.teamcode.all_purpose.commands;
+
+/** Runs its commands one after another. The next one starts in the same cycle the previous finished. */
+public class SequentialCommandGroup implements Command {
+    private final Command[] commands;
+    private int current;
+    private boolean currentInitialized;
+
+    public SequentialCommandGroup(Command... commands) {
+        this.commands = commands;
+    }
+
+    @Override
+    public void initialize() {
+        current = 0;
+        currentInitialized = false;
+    }
+
+    @Override
+    public void execute() {
+        while (current < commands.length) {
+            Command command = commands[current];
+            if (!currentInitialized) {
+                command.initialize();
+                currentInitialized = true;
+            }
+
+            command.execute();
+            if (!command.isFinished())
+                return;
+
+            command.end(false);
+            current++;
+            currentInitialized = false;
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return current >= commands.length;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        if (interrupted && current < commands.length && currentInitialized)
+            commands[current].end(true);
+    }
+}
@@ -0,0 +1,41 @@
+package org.firstinspires.ftc.teamcode.all_purpose.commands;
+
+/** Interrupts the wrapped command if it's still running after the timeout. E.g. a stuck drive. */
+public class TimeoutCommand implements Command {
+    private final Command command;
+    private final long timeoutNanos;
+    private long startNanos;
+    private boolean commandFinished;
+
+    public TimeoutCommand(Command command, long timeoutMs) {
+        this.command = command;
+        this.timeoutNanos = timeoutMs * 1_000_000L;
+    }
+
+    @Override
+    public void initialize() {
+        startNanos = System.nanoTime();
+        commandFinished = false;
+        command.initialize();
+    }
+
+    @Override
+    public void execute() {
+        command.execute();
+        commandFinished = command.isFinished();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return commandFinished || hasTimedOut();
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        command.end(interrupted || !commandFinished);
+    }
+
+    public boolean hasTimedOut() {
+        return System.nanoTime() - startNanos >= timeoutNanos;
+    }
+}
@@ -0,0 +1,24 @@
+package org.firstinspires.ftc.teamcode.all_purpose.commands;
+
+/** Does nothing for a while. The non-blocking sleep(). */
+public class WaitCommand implements Command {
+    private final long durationNanos;
+    private long startNanos;
+
+    public WaitCommand(long durationMs) {
+        this.durationNanos = durationMs * 1_000_000L;
+    }
+
+    @Override
+    public void initialize() {
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void execute() {}
+
+    @Override
+    public boolean isFinished() {
+        return System.nanoTime() - startNanos >= durationNanos;
+    }
+}
@@ -0,0 +1,131 @@
+package org.firstinspires.ftc.teamcode.all_purpose.control;
+
+/**
+ * Turns one raw gamepad axis into the value the robot should use, every loop:
+ *
+ * <pre>
+ *   raw ─▶ deadband ─▶ curve ─▶ scale ─▶ slew limit ─▶ out
+ *
+ *   deadband   |raw| below it is 0, above it is rescaled to start from 0 again,
+ *              so there's no jump at the edge:      0.05 -> 0,  0.525 -> 0.5,  1 -> 1
+ *   curve      (1 - expo)·x + expo·x³   0 = linear, 1 = cubic (fine control near the
+ *              middle, full power at the end). Precomputed ONCE into a lookup table,
+ *              each loop is an index + a linear interpolation, no Math.pow().
+ *   scale      Maximum output, e.g. 0.5 for a slow arm
+ *   slew limit How fast the output may change, per second, with the real loop time.
+ *              Separate rates for speeding up and for slowing down (towards 0), so the
+ *              drivetrain can't spin the wheels or tip the robot, but still stops quickly.
+ * </pre>
+ *
+ * Config is chainable, call it during init. Odd symmetric: negative inputs mirror
+ * positive ones. {@link #update(double, double)} never allocates.
+ */
+public class AxisShaper {
+    private static final int TABLE_SIZE = 256; // Intervals over [0, 1]
+
+    private final double[] curve = new double[TABLE_SIZE + 1];
+    private double deadband;
+    private double scale = 1;
+    private double increaseRate = Double.POSITIVE_INFINITY;
+    private double decreaseRate = Double.POSITIVE_INFINITY;
+
+    private double output;
+
+    public AxisShaper() {
+        setExpo(0);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Config (chainable, call during init)
+    //------------------------------------------------------------------------------------------------
+    /** [0, 1) of the stick travel that counts as 0 */
+    public AxisShaper setDeadband(double deadband) {
+        if (deadband < 0 || deadband >= 1)
+            throw new IllegalArgumentException("Deadband must be in [0, 1), got " + deadband);
+        this.deadband = deadband;
+        return this;
+    }
+
+    /** 0 = linear, 1 = cubic, anything in between blends the two */
+    public AxisShaper setExpo(double expo) {
+        if (expo < 0 || expo > 1)
+            throw new IllegalArgumentException("Expo must be in [0, 1], got " + expo);
+
+        for (int i = 0; i <= TABLE_SIZE; i++) {
+            double x = (double) i / TABLE_SIZE;
+            curve[i] = (1 - expo) * x + expo * x * x * x;
+        }
+        return this;
+    }
+
+    /** The output at full stick */
+    public AxisShaper setScale(double scale) {
+        this.scale = scale;
+        return this;
+    }
+
+    /** Same rate both ways, output units per second. Infinity = no limit. */
+    public AxisShaper setSlewRate(double perSecond) {
+        return setSlewRate(perSecond, perSecond);
+    }
+
+    /**
+     * @param increasePerSecond Away from 0 (speeding up)
+     * @param decreasePerSecond Towards 0 (slowing down), usually faster
+     */
+    public AxisShaper setSlewRate(double increasePerSecond, double decreasePerSecond) {
+        if (increasePerSecond <= 0 || decreasePerSecond <= 0)
+            throw new IllegalArgumentException("Slew rates must be positive");
+        this.increaseRate = increasePerSecond;
+        this.decreaseRate = decreasePerSecond;
+        return this;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Shaping
+    //------------------------------------------------------------------------------------------------
+    /** Deadband, curve and scale, without the slew limit. No state. */
+    public double shape(double raw) {
+        double magnitude = Math.min(1, Math.abs(raw));
+        if (magnitude <= deadband)
+            return 0;
+
+        double index = (magnitude - deadband) / (1 - deadband) * TABLE_SIZE;
+        int lower = Math.min((int) index, TABLE_SIZE - 1);
+        double shaped = curve[lower] + (curve[lower + 1] - curve[lower]) * (index - lower);
+        return Math.copySign(shaped * scale, raw);
+    }
+
+    /**
+     * Everything, once per loop.
+     * @param dtSeconds Since the last update, for the slew limit
+     */
+    public double update(double raw, double dtSeconds) {
+        double target = shape(raw);
+        double change = target - output;
+
+        // Speeding up = moving away from 0 (or across it, which slows down first)
+        boolean increasing = output == 0 ? target != 0 : Math.signum(change) == Math.signum(output);
+        double maxChange = (increasing ? increaseRate : decreaseRate) * dtSeconds;
+        if (Math.abs(change) > maxChange) {
+            change = Math.copySign(maxChange, change);
+
+            // Don't let the faster decrease rate overshoot through 0 into the other direction
+            if (!increasing && Math.abs(change) > Math.abs(output))
+                change = -output;
+        }
+
+        output += change;
+        return output;
+    }
+
+    /** The last {@link #update(double, double)} output */
+    public double getOutput() {
+        return output;
+    }
+
+    /** Back to 0, e.g. when the OpMode (re)starts */
+    public void reset() {
+        output = 0;
+    }
+}
@@ -0,0 +1,157 @@
+package org.firstinspires.ftc.teamcode.all_purpose.control;
+
+import org.firstinspires.ftc.teamcode.all_purpose.RobotConstants;
+import org.firstinspires.ftc.teamcode.all_purpose.hardware.ElbowArm;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.MotionProfile;
+
+/**
+ * Owns the elbow arm: give it an angle, call {@link #update()} once per control cycle,
+ * and it gets there (and stays there). Nothing here ever waits, so the arm moves while
+ * the robot drives, and a missed target can't hang the OpMode.<br><br>
+ *
+ * Angles are absolute, in degrees above horizontal (see ELBOW_REST_ANGLE_DEGREES):
+ * <pre>
+ *              90°
+ *               |    _ 45°
+ *               |  .´
+ *      ---------o---------  0°      angle = counts / COUNTS_PER_ANGLE + ELBOW_REST_ANGLE_DEGREES
+ *                `.
+ *                  ` -30°  (rest)
+ * </pre>
+ *
+ * Every new target is reached along a trapezoidal {@link MotionProfile} (from where the
+ * previous one was, so retargeting mid-move is smooth). Each cycle:
+ *
+ *   power = KG·cos(angle) + KV·ω + KA·α + PID(planned angle - measured angle)
+ *
+ * The cosine term holds the arm up against gravity (most when horizontal, none when
+ * vertical), so the PID only has to correct, and the arm doesn't sag once there.
+ */
+public class ElbowArmController {
+    private final ElbowArm arm;
+    private final PIDFController positionController =
+            PIDFController.position(RobotConstants.ELBOW_KP, RobotConstants.ELBOW_KI, RobotConstants.ELBOW_KD)
+                    .setIntegralLimit(0.15)
+                    .setDerivativeFilter(0.05)
+                    .setOutputLimits(-1, 1);
+
+    private MotionProfile profile;
+    private double profileStartAngle;
+    private long profileStartNanos;
+    private long lastUpdateNanos;
+
+    private double targetAngle;
+    private double plannedAngle;
+    private boolean enabled;
+
+    public ElbowArmController(ElbowArm arm) {
+        this.arm = arm;
+        this.targetAngle = getAngle();
+        this.plannedAngle = targetAngle;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Targets
+    //------------------------------------------------------------------------------------------------
+    /** Degrees above horizontal, clamped to [ELBOW_REST_ANGLE_DEGREES, ELBOW_MAX_ANGLE_DEGREES]. Plans the move. */
+    public void setTargetAngle(double degrees) {
+        double target = Math.max(RobotConstants.ELBOW_REST_ANGLE_DEGREES,
+                Math.min(RobotConstants.ELBOW_MAX_ANGLE_DEGREES, degrees));
+
+        // Start from where the arm was supposed to be, not where it is, so a small error
+        // doesn't turn into a jump. Unless this is the first target.
+        double start = enabled ? plannedAngle : getAngle();
+        follow(start, createProfile(target - start));
+    }
+
+    /**
+     * Move along an already planned profile, e.g. one made during init, so nothing is
+     * computed now. The target is where the profile ends.
+     * @param startAngle Where the profile starts, usually where the previous target was
+     */
+    public void follow(double startAngle, MotionProfile profile) {
+        if (!enabled)
+            positionController.reset();
+
+        this.profile = profile;
+        profileStartAngle = startAngle;
+        profileStartNanos = System.nanoTime();
+        targetAngle = startAngle + profile.getDistance();
+        enabled = true;
+    }
+
+    /** A move by the degrees, within the arm's velocity and acceleration limits */
+    public static MotionProfile createProfile(double degrees) {
+        return MotionProfile.trapezoidal(
+                degrees,
+                RobotConstants.ELBOW_MAX_VELOCITY,
+                RobotConstants.ELBOW_MAX_ACCELERATION);
+    }
+
+    /** Positive = up, from the current target (or angle, if there was none) */
+    public void moveBy(double degrees) {
+        setTargetAngle((enabled ? targetAngle : getAngle()) + degrees);
+    }
+
+    public double getTargetAngle() {
+        return targetAngle;
+    }
+
+    /** Degrees above horizontal, as of the last refresh() */
+    public double getAngle() {
+        return arm.getCounts() / RobotConstants.COUNTS_PER_ANGLE + RobotConstants.ELBOW_REST_ANGLE_DEGREES;
+    }
+
+    /** The move is over, and the arm is within ELBOW_TOLERANCE_DEGREES of the target */
+    public boolean isAtTarget() {
+        return !isMoving() && Math.abs(targetAngle - getAngle()) <= RobotConstants.ELBOW_TOLERANCE_DEGREES;
+    }
+
+    /** Still following the profile */
+    public boolean isMoving() {
+        return enabled && getElapsedSeconds() < profile.getDuration();
+    }
+
+    /** Let go of the arm (power 0) until the next target. */
+    public void disable() {
+        enabled = false;
+        arm.setPower(0);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Control
+    //------------------------------------------------------------------------------------------------
+    /** Call once per control cycle, after refresh(). Never blocks, never allocates. */
+    public void update() {
+        long now = System.nanoTime();
+        double dt = (now - lastUpdateNanos) * 1e-9;
+        lastUpdateNanos = now;
+
+        if (!enabled)
+            return;
+
+        double t = getElapsedSeconds();
+        plannedAngle = profileStartAngle + profile.getPosition(t);
+        double angle = getAngle();
+
+        double power = RobotConstants.ELBOW_KG * Math.cos(Math.toRadians(angle))
+                + RobotConstants.ELBOW_KV * profile.getVelocity(t)
+                + RobotConstants.ELBOW_KA * profile.getAcceleration(t)
+                + positionController.update(plannedAngle, angle, dt > 0 && dt < 1 ? dt : 0);
+
+        // Resting on the stop, nothing to hold
+        if (targetAngle <= RobotConstants.ELBOW_REST_ANGLE_DEGREES && !isMoving()
+                && angle <= RobotConstants.ELBOW_REST_ANGLE_DEGREES + RobotConstants.ELBOW_TOLERANCE_DEGREES)
+            power = 0;
+
+        arm.setPower(Math.max(-1, Math.min(1, power)));
+    }
+
+    private double getElapsedSeconds() {
+        return (System.nanoTime() - profileStartNanos) * 1e-9;
+    }
+}
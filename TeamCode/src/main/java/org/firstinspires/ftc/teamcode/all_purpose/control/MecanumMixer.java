@@ -0,0 +1,77 @@
+package org.firstinspires.ftc.teamcode.all_purpose.control;
+
+import org.firstinspires.ftc.teamcode.all_purpose.hardware.DriveMotors;
+
+/**
+ * Turns drive, strafe and rotate into the four mecanum wheel powers. Straight vector
+ * mixing, no polar round trip (atan2, hypot, sin, cos), no allocation:
+ *
+ * <pre>
+ *   FL = drive + strafe + rotate      FR = drive - strafe - rotate
+ *   BL = drive - strafe + rotate      BR = drive + strafe - rotate
+ * </pre>
+ *
+ * When a wheel would go over full power, the powers have to be scaled down.
+ * Two ways to do it:
+ * <pre>
+ *   PRESERVE_RATIO   Everything divided by the largest |wheel|. The robot moves in the
+ *                    same direction and turns at the same rate relative to its speed,
+ *                    just slower. (Turning while driving full speed = less of both)
+ *
+ *   ROTATION_FIRST   Only the translation gives way, the rotation is kept whole (if
+ *                    it fits). Turns stay as sharp as asked, the robot drives slower
+ *                    while turning.
+ * </pre>
+ *
+ * Either way, the sign of the rotation doesn't matter, turning left saturates exactly
+ * like turning right.
+ */
+public final class MecanumMixer {
+    public enum Normalization {
+        PRESERVE_RATIO,
+        ROTATION_FIRST
+    }
+
+    private MecanumMixer() {}
+
+    /** Same as {@link #mix(double, double, double, Normalization, double[])}, preserving the ratio */
+    public static void mix(double drive, double strafe, double rotate, double[] wheelPowers) {
+        mix(drive, strafe, rotate, Normalization.PRESERVE_RATIO, wheelPowers);
+    }
+
+    /**
+     * @param drive  Forward +
+     * @param strafe Right +
+     * @param rotate Clockwise +
+     * @param wheelPowers Written to, in the {@link DriveMotors#FRONT_LEFT} .. {@link DriveMotors#BACK_RIGHT}
+     *                    order. Every value ends up in [-1, 1].
+     */
+    public static void mix(double drive, double strafe, double rotate, Normalization normalization,
+                           double[] wheelPowers) {
+        // |FL| and |BR| share drive + strafe, |FR| and |BL| drive - strafe
+        double sum = drive + strafe;
+        double difference = drive - strafe;
+        double translation = Math.max(Math.abs(sum), Math.abs(difference));
+
+        if (normalization == Normalization.ROTATION_FIRST) {
+            double turn = Math.max(-1, Math.min(1, rotate));
+            double room = 1 - Math.abs(turn);
+            double scale = translation > room ? room / translation : 1;
+            sum *= scale;
+            difference *= scale;
+            rotate = turn;
+        } else {
+            double largest = translation + Math.abs(rotate);
+            if (largest > 1) {
+                sum /= largest;
+                difference /= largest;
+                rotate /= largest;
+            }
+        }
+
+        wheelPowers[DriveMotors.FRONT_LEFT]  = sum + rotate;
+        wheelPowers[DriveMotors.FRONT_RIGHT] = difference - rotate;
+        wheelPowers[DriveMotors.BACK_LEFT]   = difference + rotate;
+        wheelPowers[DriveMotors.BACK_RIGHT]  = sum - rotate;
+    }
+}
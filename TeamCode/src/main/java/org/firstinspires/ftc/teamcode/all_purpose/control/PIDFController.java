@@ -0,0 +1,154 @@
+package org.firstinspires.ftc.teamcode.all_purpose.control;
+
+import org.firstinspires.ftc.teamcode.all_purpose.Misc;
+
+/**
+ * The classic PID controller, plus feedforward:
+ *
+ *   output = kP·error + kI·∫error·dt + kD·d(error)/dt + kF·setpoint
+ *
+ * With the usual fixes for running on a real robot:
+ * <pre>
+ *   Integral clamping      The kI part can never exceed ±integralLimit, and stops growing
+ *                          while the output is saturated (no wind-up while stuck).
+ *   Derivative filtering   Encoder / IMU noise gets amplified by d/dt, so the derivative
+ *                          is low-pass filtered (derivativeTimeConstant).
+ *   Continuous input       For angles, the error always takes the short way around,
+ *                          e.g. from 170° to -170° is +20°, not -340°.
+ * </pre>
+ *
+ * The family, by what the setpoint is:
+ * <pre>
+ *   position(..)  kF usually 0, feedforward comes from a motion profile instead
+ *   velocity(..)  kF = power per unit of velocity, does most of the work
+ *   heading(..)   Degrees, wraps around at ±180
+ * </pre>
+ *
+ * {@link #update(double, double, double)} only touches a few doubles, never allocates.
+ */
+public class PIDFController {
+    private final double kP;
+    private final double kI;
+    private final double kD;
+    private final double kF;
+
+    private double integralLimit = Double.POSITIVE_INFINITY;
+    private double derivativeTimeConstant;
+    private double minOutput = Double.NEGATIVE_INFINITY;
+    private double maxOutput = Double.POSITIVE_INFINITY;
+    private double continuousRange; // 0 = not continuous
+
+    private double integral;
+    private double previousError;
+    private double filteredDerivative;
+    private boolean hasPrevious;
+    private double error;
+    private double output;
+
+    public PIDFController(double kP, double kI, double kD, double kF) {
+        this.kP = kP;
+        this.kI = kI;
+        this.kD = kD;
+        this.kF = kF;
+    }
+
+    public static PIDFController position(double kP, double kI, double kD) {
+        return new PIDFController(kP, kI, kD, 0);
+    }
+
+    public static PIDFController velocity(double kP, double kI, double kF) {
+        return new PIDFController(kP, kI, 0, kF);
+    }
+
+    /** Setpoint and measurement in Degrees (°) */
+    public static PIDFController heading(double kP, double kI, double kD) {
+        return new PIDFController(kP, kI, kD, 0).setContinuousRange(360);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Config (chainable, call during init)
+    //------------------------------------------------------------------------------------------------
+    /** Max |kI·∫error| */
+    public PIDFController setIntegralLimit(double limit) {
+        integralLimit = Math.abs(limit);
+        return this;
+    }
+
+    /** Seconds, 0 = unfiltered */
+    public PIDFController setDerivativeFilter(double timeConstantSeconds) {
+        derivativeTimeConstant = timeConstantSeconds;
+        return this;
+    }
+
+    public PIDFController setOutputLimits(double min, double max) {
+        minOutput = min;
+        maxOutput = max;
+        return this;
+    }
+
+    /** E.g. 360 for degrees, 2π for radians. The error is wrapped into [-range/2, range/2) */
+    public PIDFController setContinuousRange(double range) {
+        continuousRange = range;
+        return this;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Control
+    //------------------------------------------------------------------------------------------------
+    /**
+     * @param dtSeconds Time since the last update. The derivative and integral are
+     *                  skipped when it's 0 or negative (e.g. the first update).
+     */
+    public double update(double setpoint, double measurement, double dtSeconds) {
+        error = setpoint - measurement;
+        if (continuousRange > 0)
+            error = Misc.wrap(error, continuousRange);
+
+        double derivative = 0;
+        if (hasPrevious && dtSeconds > 0) {
+            double rawDerivative = (error - previousError) / dtSeconds;
+            filteredDerivative = derivativeTimeConstant > 0
+                    ? filteredDerivative + (1 - Math.exp(-dtSeconds / derivativeTimeConstant)) * (rawDerivative - filteredDerivative)
+                    : rawDerivative;
+            derivative = filteredDerivative;
+        }
+
+        // Only integrate if that doesn't push an already saturated output further
+        double unclampedIntegral = integral;
+        if (kI != 0 && dtSeconds > 0) {
+            boolean pushingHigh = output >= maxOutput && error > 0;
+            boolean pushingLow  = output <= minOutput && error < 0;
+            if (!pushingHigh && !pushingLow)
+                unclampedIntegral += error * dtSeconds;
+
+            double maxIntegral = integralLimit / Math.abs(kI);
+            integral = Math.max(-maxIntegral, Math.min(maxIntegral, unclampedIntegral));
+        }
+
+        previousError = error;
+        hasPrevious = true;
+
+        output = kP * error + kI * integral + kD * derivative + kF * setpoint;
+        output = Math.max(minOutput, Math.min(maxOutput, output));
+        return output;
+    }
+
+    /** Forget the integral and derivative history, e.g. when starting a new move. */
+    public void reset() {
+        integral = 0;
+        previousError = 0;
+        filteredDerivative = 0;
+        hasPrevious = false;
+        error = 0;
+        output = 0;
+    }
+
+    /** From the last update, wrapped if continuous */
+    public double getError() {
+        return error;
+    }
+
+    public double getOutput() {
+        return output;
+    }
+}
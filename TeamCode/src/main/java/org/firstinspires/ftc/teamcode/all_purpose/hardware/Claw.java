@@ -0,0 +1,12 @@
+package org.firstinspires.ftc.teamcode.all_purpose.hardware;
+
+public interface Claw {
+    double CLOSED = 0;
+    double OPEN = 0.5;
+
+    /** Servo position [0, 1] */
+    void setLeftPosition(double position);
+
+    /** Servo position [0, 1] */
+    void setRightPosition(double position);
+}
@@ -0,0 +1,25 @@
+package org.firstinspires.ftc.teamcode.all_purpose.hardware;
+
+/**
+ * The four mecanum wheels. Wheel indexes are always FL, FR, BL, BR.<br><br>
+ *
+ * Counts are sign-corrected, so positive always means the wheel rolls the robot forward.
+ */
+public interface DriveMotors {
+    int FRONT_LEFT = 0;
+    int FRONT_RIGHT = 1;
+    int BACK_LEFT = 2;
+    int BACK_RIGHT = 3;
+    int WHEEL_COUNT = 4;
+
+    /** [-1, 1] each */
+    void setPowers(double frontLeft, double frontRight, double backLeft, double backRight);
+
+    /** As of the last {@link RobotHardware#refresh()} */
+    int getCounts(int wheel);
+
+    /** Counts per second, as of the last {@link RobotHardware#refresh()} */
+    double getVelocity(int wheel);
+
+    void resetEncoders();
+}
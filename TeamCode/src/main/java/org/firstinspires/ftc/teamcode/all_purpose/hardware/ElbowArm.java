@@ -0,0 +1,16 @@
+package org.firstinspires.ftc.teamcode.all_purpose.hardware;
+
+/**
+ * The elbow joint of the arm. Positive power and counts are always up, whatever
+ * way the motor is mounted (see RobotConstants.ELBOW_UP_SIGN).
+ */
+public interface ElbowArm {
+    /** [-1, 1] */
+    void setPower(double power);
+
+    /** As of the last {@link RobotHardware#refresh()} */
+    int getCounts();
+
+    /** Counts per second, as of the last {@link RobotHardware#refresh()} */
+    double getVelocity();
+}
@@ -0,0 +1,86 @@
+package org.firstinspires.ftc.teamcode.all_purpose.hardware;
+
+import com.qualcomm.robotcore.hardware.DcMotorImplEx;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+
+import org.firstinspires.ftc.teamcode.all_purpose.HardwareManager;
+import org.firstinspires.ftc.teamcode.all_purpose.RobotConstants;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.MecanumOdometry;
+import org.firstinspires.ftc.teamcode.all_purpose.sensors.VoltageService;
+
+/**
+ * The real robot, behind the {@link RobotHardware} interfaces.
+ * Every read is served from the HardwareManager's per-cycle bulk read (or its
+ * background sensor sampler), so nothing here adds hub transactions.
+ * Every motor power is battery voltage compensated (see VoltageService).
+ */
+public class HubRobotHardware implements RobotHardware {
+    private final HardwareManager hardwareManager;
+
+    public HubRobotHardware(HardwareManager hardwareManager) {
+        this.hardwareManager = hardwareManager;
+    }
+
+    private final DriveMotors drive = new DriveMotors() {
+        @Override
+        public void setPowers(double frontLeft, double frontRight, double backLeft, double backRight) {
+            VoltageService voltage = hardwareManager.voltageService;
+            hardwareManager.getFrontLeftWheel().setPower(voltage.compensate(frontLeft));
+            hardwareManager.getFrontRightWheel().setPower(voltage.compensate(frontRight));
+            hardwareManager.getBackLeftWheel().setPower(voltage.compensate(backLeft));
+            hardwareManager.getBackRightWheel().setPower(voltage.compensate(backRight));
+        }
+
+        @Override public int getCounts(int wheel)      { return hardwareManager.getWheelCounts(wheel); }
+        @Override public double getVelocity(int wheel) { return hardwareManager.getWheelVelocity(wheel); }
+        @Override public void resetEncoders()          { hardwareManager.resetWheelEncoders(); }
+    };
+
+    private final ElbowArm arm = new ElbowArm() {
+        @Override
+        public void setPower(double power) {
+            setForward(hardwareManager.elbowArmMotor); // Older code flips it
+            hardwareManager.elbowArmMotor.setPower(
+                    RobotConstants.ELBOW_UP_SIGN * hardwareManager.voltageService.compensate(power));
+        }
+
+        @Override public int getCounts()      { return RobotConstants.ELBOW_UP_SIGN * hardwareManager.getElbowArmCounts(); }
+        @Override public double getVelocity() { return RobotConstants.ELBOW_UP_SIGN * hardwareManager.getElbowArmVelocity(); }
+    };
+
+    private final Lift lift = new Lift() {
+        @Override
+        public void setPower(double power) {
+            setForward(hardwareManager.liftMotor); // Older code flips it
+            hardwareManager.liftMotor.setPower(hardwareManager.voltageService.compensate(power));
+        }
+
+        @Override public int getCounts() { return hardwareManager.getLiftCounts(); }
+    };
+
+    private final Claw claw = new Claw() {
+        @Override public void setLeftPosition(double position)  { hardwareManager.clawServoLeft.setPosition(position); }
+        @Override public void setRightPosition(double position) { hardwareManager.clawServoRight.setPosition(position); }
+    };
+
+    private final RobotSensors sensors = new RobotSensors() {
+        @Override public double getHeading() { return hardwareManager.getCurrentDegreeHeading(); }
+        @Override public void resetHeading() { hardwareManager.resetYaw(); }
+
+        @Override public double getVoltage() { return hardwareManager.voltageService.getVoltage(); }
+    };
+
+    private static void setForward(DcMotorImplEx motor) {
+        // getDirection() is cached by the SDK, no hub transaction
+        if (motor.getDirection() != DcMotorSimple.Direction.FORWARD)
+            motor.setDirection(DcMotorSimple.Direction.FORWARD);
+    }
+
+    @Override public DriveMotors drive()    { return drive; }
+    @Override public ElbowArm arm()         { return arm; }
+    @Override public Lift lift()            { return lift; }
+    @Override public Claw claw()            { return claw; }
+    @Override public RobotSensors sensors() { return sensors; }
+    @Override public MecanumOdometry odometry() { return hardwareManager.odometry; }
+    @Override public void refresh()         { hardwareManager.refresh(); }
+}
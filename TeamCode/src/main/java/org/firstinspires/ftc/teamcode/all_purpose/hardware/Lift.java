@@ -0,0 +1,9 @@
+package org.firstinspires.ftc.teamcode.all_purpose.hardware;
+
+public interface Lift {
+    /** [-1, 1], positive lifts */
+    void setPower(double power);
+
+    /** As of the last {@link RobotHardware#refresh()} */
+    int getCounts();
+}
@@ -0,0 +1,29 @@
+package org.firstinspires.ftc.teamcode.all_purpose.hardware;
+
+import org.firstinspires.ftc.teamcode.all_purpose.motion.MecanumOdometry;
+
+/**
+ * Everything the robot logic needs from the hardware, and nothing more. Narrow on
+ * purpose, so there can be more than one implementation:
+ *
+ *   RobotHardware
+ *     |-> HubRobotHardware   The real robot, through the HardwareManager.
+ *     `-> SimulatedRobot     A simple mecanum / arm physics model, plain Java only,
+ *                            so robot logic can be run and benchmarked on a normal JVM.
+ *
+ * Code written against this (instead of the HardwareManager) doesn't care which one
+ * it is given. Only plain Java types on purpose, no SDK classes.
+ */
+public interface RobotHardware {
+    DriveMotors drive();
+    ElbowArm arm();
+    Lift lift();
+    Claw claw();
+    RobotSensors sensors();
+
+    /** Where the robot is, updated by every {@link #refresh()} */
+    MecanumOdometry odometry();
+
+    /** Read every sensor once. Call at the start of every control cycle. */
+    void refresh();
+}
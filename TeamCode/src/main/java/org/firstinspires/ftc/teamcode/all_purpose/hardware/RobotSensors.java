@@ -0,0 +1,12 @@
+package org.firstinspires.ftc.teamcode.all_purpose.hardware;
+
+public interface RobotSensors {
+    /** Degrees (°), IMU yaw convention (counter-clockwise positive), [-180, 180) */
+    double getHeading();
+
+    /** Makes the current heading 0 */
+    void resetHeading();
+
+    /** Battery, Volts (may be filtered) */
+    double getVoltage();
+}
@@ -0,0 +1,234 @@
+package org.firstinspires.ftc.teamcode.all_purpose.hardware;
+
+import org.firstinspires.ftc.teamcode.all_purpose.Misc;
+import org.firstinspires.ftc.teamcode.all_purpose.RobotConstants;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.MecanumOdometry;
+
+/**
+ * An in-memory robot, driven by a (very) simple physics model, for running and
+ * benchmarking robot logic on a plain JVM without booking robot time. The autonomous
+ * routines run on it in Benchmarks/.../SimulationHarness ({@code ./gradlew :Benchmarks:simulate}),
+ * which fails on slow loops or overrunning routines.<br><br>
+ *
+ * Model:
+ * <pre>
+ *   Wheels:  Each wheel's surface speed approaches  power * MAX_WHEEL_SPEED * (voltage / 12V)
+ *            with a first order lag (MOTOR_TIME_CONSTANT), no slip.
+ *
+ *   Chassis: Mecanum forward kinematics (robot frame, x forward, y left):
+ *              vx = ( FL + FR + BL + BR) / 4
+ *              vy = (-FL + FR + BL - BR) / 4
+ *              ω  = (-FL + FR - BL + BR) / (4 * (HALF_TRACK_WIDTH + HALF_WHEEL_BASE))
+ *            then rotated into the field frame and integrated.
+ *
+ *   Arm:     α = ARM_MOTOR_ACCELERATION * power - ARM_DAMPING * ω - ARM_GRAVITY * cos(angle)
+ *            between its two hard stops.
+ *
+ *   Lift:    Constant speed proportional to power, can't go below 0.
+ * </pre>
+ *
+ * Time only moves when {@link #step(double)} is called, or, when created as real-time,
+ * by however long it's been since the last {@link #refresh()}. Like the real hardware,
+ * sensor values only change on {@link #refresh()}.
+ */
+public class SimulatedRobot implements RobotHardware {
+    public static final double NOMINAL_VOLTAGE = 12.0;
+    public static final double MAX_WHEEL_SPEED = 1.6;           // m/s at full power, nominal voltage
+    public static final double MOTOR_TIME_CONSTANT = 0.08;      // s
+    public static final double ARM_MOTOR_ACCELERATION = 1500;   // °/s² at full power
+    public static final double ARM_DAMPING = 10;                // 1/s
+    public static final double ARM_GRAVITY = 350;               // °/s² when horizontal
+    public static final double ARM_MAX_ANGLE_DEGREES = 200;     // Above the rest position
+    public static final double LIFT_COUNTS_PER_SECOND = 2000;   // At full power
+    private static final double MAX_STEP_SECONDS = 0.001;
+
+    private final boolean realTime;
+    private long lastRefreshNanos;
+    private long simulatedNanos;
+    private final MecanumOdometry odometry = new MecanumOdometry();
+    private double voltage = 12.5;
+
+    // Ground truth
+    private final double[] wheelPowers = new double[DriveMotors.WHEEL_COUNT];
+    private final double[] wheelSpeeds = new double[DriveMotors.WHEEL_COUNT];    // m/s
+    private final double[] wheelDistances = new double[DriveMotors.WHEEL_COUNT]; // m
+    private double x, y, headingRadians;
+    private double headingOffsetRadians;
+    private double armPower, armAngle, armAngularVelocity; // Degrees above rest
+    private double liftPower, liftCounts;
+    private double leftClawPosition, rightClawPosition;
+
+    // What the "sensors" read at the last refresh()
+    private final int[] sampledWheelCounts = new int[DriveMotors.WHEEL_COUNT];
+    private final double[] sampledWheelVelocities = new double[DriveMotors.WHEEL_COUNT];
+    private int sampledArmCounts;
+    private double sampledArmVelocity;
+    private int sampledLiftCounts;
+    private double sampledHeading;
+
+    /** @param realTime true = {@link #refresh()} advances by the wall-clock time since the last one */
+    public SimulatedRobot(boolean realTime) {
+        this.realTime = realTime;
+        this.lastRefreshNanos = System.nanoTime();
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Simulation
+    //------------------------------------------------------------------------------------------------
+    /** Advance the physics by the given amount of time. */
+    public void step(double seconds) {
+        while (seconds > 0) {
+            double dt = Math.min(seconds, MAX_STEP_SECONDS);
+            integrate(dt);
+            simulatedNanos += (long) (dt * 1e9);
+            seconds -= dt;
+        }
+    }
+
+    private void integrate(double dt) {
+        double voltageScale = voltage / NOMINAL_VOLTAGE;
+
+        // Wheels
+        for (int i = 0; i < DriveMotors.WHEEL_COUNT; i++) {
+            double target = wheelPowers[i] * MAX_WHEEL_SPEED * voltageScale;
+            wheelSpeeds[i] += (target - wheelSpeeds[i]) * Math.min(1, dt / MOTOR_TIME_CONSTANT);
+            wheelDistances[i] += wheelSpeeds[i] * dt;
+        }
+
+        double fl = wheelSpeeds[DriveMotors.FRONT_LEFT];
+        double fr = wheelSpeeds[DriveMotors.FRONT_RIGHT];
+        double bl = wheelSpeeds[DriveMotors.BACK_LEFT];
+        double br = wheelSpeeds[DriveMotors.BACK_RIGHT];
+
+        double vx = (fl + fr + bl + br) / 4;
+        double vy = (-fl + fr + bl - br) / 4;
+        double omega = (-fl + fr - bl + br)
+                / (4 * (RobotConstants.HALF_TRACK_WIDTH_METERS + RobotConstants.HALF_WHEEL_BASE_METERS));
+
+        double cos = Math.cos(headingRadians);
+        double sin = Math.sin(headingRadians);
+        x += (vx * cos - vy * sin) * dt;
+        y += (vx * sin + vy * cos) * dt;
+        headingRadians += omega * dt;
+
+        // Arm
+        double absoluteAngle = Math.toRadians(armAngle + RobotConstants.ELBOW_REST_ANGLE_DEGREES);
+        double armAcceleration = ARM_MOTOR_ACCELERATION * armPower * voltageScale
+                - ARM_DAMPING * armAngularVelocity
+                - ARM_GRAVITY * Math.cos(absoluteAngle);
+
+        armAngularVelocity += armAcceleration * dt;
+        armAngle += armAngularVelocity * dt;
+        if (armAngle < 0 || armAngle > ARM_MAX_ANGLE_DEGREES) { // Hard stops
+            armAngle = Math.max(0, Math.min(ARM_MAX_ANGLE_DEGREES, armAngle));
+            armAngularVelocity = 0;
+        }
+
+        // Lift
+        liftCounts = Math.max(0, liftCounts + liftPower * LIFT_COUNTS_PER_SECOND * voltageScale * dt);
+    }
+
+    @Override
+    public void refresh() {
+        long now = System.nanoTime();
+        if (realTime)
+            step((now - lastRefreshNanos) * 1e-9);
+        lastRefreshNanos = now;
+
+        for (int i = 0; i < DriveMotors.WHEEL_COUNT; i++) {
+            sampledWheelCounts[i] = (int) Math.round(wheelDistances[i] * RobotConstants.TICKS_PER_METER);
+            sampledWheelVelocities[i] = wheelSpeeds[i] * RobotConstants.TICKS_PER_METER;
+        }
+
+        sampledArmCounts = (int) Math.round(armAngle * RobotConstants.COUNTS_PER_ANGLE);
+        sampledArmVelocity = armAngularVelocity * RobotConstants.COUNTS_PER_ANGLE;
+        sampledLiftCounts = (int) Math.round(liftCounts);
+        sampledHeading = Misc.wrapDegrees(Math.toDegrees(headingRadians - headingOffsetRadians));
+
+        odometry.update(
+                sampledWheelCounts[DriveMotors.FRONT_LEFT], sampledWheelCounts[DriveMotors.FRONT_RIGHT],
+                sampledWheelCounts[DriveMotors.BACK_LEFT],  sampledWheelCounts[DriveMotors.BACK_RIGHT],
+                Math.toRadians(sampledHeading),
+                simulatedNanos);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Ground Truth (for checking how well the robot logic did)
+    //------------------------------------------------------------------------------------------------
+    /** Field position in meters, from where the robot started. */
+    public double getX() { return x; }
+    public double getY() { return y; }
+    /** Radians, counter-clockwise positive, from where the robot started. */
+    public double getTrueHeadingRadians() { return headingRadians; }
+    /** Degrees above horizontal */
+    public double getArmAngleDegrees() { return armAngle + RobotConstants.ELBOW_REST_ANGLE_DEGREES; }
+    public double getLeftClawPosition()  { return leftClawPosition; }
+    public double getRightClawPosition() { return rightClawPosition; }
+
+    public void setVoltage(double voltage) { this.voltage = voltage; }
+
+    //------------------------------------------------------------------------------------------------
+    // RobotHardware
+    //------------------------------------------------------------------------------------------------
+    private final DriveMotors drive = new DriveMotors() {
+        @Override
+        public void setPowers(double frontLeft, double frontRight, double backLeft, double backRight) {
+            wheelPowers[FRONT_LEFT]  = clampPower(frontLeft);
+            wheelPowers[FRONT_RIGHT] = clampPower(frontRight);
+            wheelPowers[BACK_LEFT]   = clampPower(backLeft);
+            wheelPowers[BACK_RIGHT]  = clampPower(backRight);
+        }
+
+        @Override public int getCounts(int wheel)      { return sampledWheelCounts[wheel]; }
+        @Override public double getVelocity(int wheel) { return sampledWheelVelocities[wheel]; }
+
+        @Override
+        public void resetEncoders() {
+            for (int i = 0; i < WHEEL_COUNT; i++) {
+                wheelDistances[i] = 0;
+                sampledWheelCounts[i] = 0;
+            }
+            odometry.resetEncoderBaseline();
+        }
+    };
+
+    // Already as ElbowArm sees it (positive = up), the motor's own sign is the real hardware's business
+    private final ElbowArm arm = new ElbowArm() {
+        @Override public void setPower(double power) { armPower = clampPower(power); }
+        @Override public int getCounts()             { return sampledArmCounts; }
+        @Override public double getVelocity()        { return sampledArmVelocity; }
+    };
+
+    private final Lift lift = new Lift() {
+        @Override public void setPower(double power) { liftPower = clampPower(power); }
+        @Override public int getCounts()             { return sampledLiftCounts; }
+    };
+
+    private final Claw claw = new Claw() {
+        @Override public void setLeftPosition(double position)  { leftClawPosition = position; }
+        @Override public void setRightPosition(double position) { rightClawPosition = position; }
+    };
+
+    private final RobotSensors sensors = new RobotSensors() {
+        @Override public double getHeading() { return sampledHeading; }
+        @Override public double getVoltage() { return voltage; }
+
+        @Override
+        public void resetHeading() {
+            headingOffsetRadians = headingRadians;
+            sampledHeading = 0;
+            odometry.resetHeadingBaseline();
+        }
+    };
+
+    @Override public DriveMotors drive()    { return drive; }
+    @Override public ElbowArm arm()         { return arm; }
+    @Override public Lift lift()            { return lift; }
+    @Override public Claw claw()            { return claw; }
+    @Override public RobotSensors sensors() { return sensors; }
+    @Override public MecanumOdometry odometry() { return odometry; }
+
+    private static double clampPower(double power) {
+        return Math.max(-1, Math.min(1, power));
+    }
+}
@@ -0,0 +1,161 @@
+package org.firstinspires.ftc.teamcode.all_purpose.motion;
+
+import org.firstinspires.ftc.teamcode.all_purpose.Misc;
+import org.firstinspires.ftc.teamcode.all_purpose.RobotConstants;
+
+/**
+ * Keeps track of the robot's position on the field, from the four wheel encoders
+ * (and the IMU heading when there is one), updated every control cycle.<br><br>
+ *
+ * Mecanum forward kinematics, from how far each wheel rolled since the last update
+ * (meters, sign-corrected, robot frame: x forward, y left):
+ *
+ *   dx = ( FL + FR + BL + BR) / 4
+ *   dy = (-FL + FR + BL - BR) / 4
+ *   dθ = (-FL + FR - BL + BR) / (4 * (HALF_TRACK_WIDTH + HALF_WHEEL_BASE))
+ *
+ * Heading fusion: encoders alone drift when the wheels slip while turning, so when a
+ * heading is given, dθ comes from how much IT changed instead. Only changes are used,
+ * so resetting the IMU yaw doesn't teleport the robot, and a heading jump that the
+ * encoders don't agree with at all (a reset we weren't told about) is ignored.<br><br>
+ *
+ * The displacement is then integrated along an arc (constant twist over the cycle)
+ * instead of a straight line, which stays accurate while driving and turning at once.<br><br>
+ *
+ * {@link #update} only uses primitive fields, never allocates. {@link #getPose()} does,
+ * use {@link #getX()} etc. in tight loops.
+ */
+public class MecanumOdometry {
+    private static final double MAX_HEADING_DISAGREEMENT_RADIANS = 0.5; // Per update
+
+    private final double metersPerCount;
+    private final double turningRadius;
+
+    private final int[] previousCounts = new int[4];
+    private boolean hasCounts;
+    private double previousHeading = Double.NaN;
+    private long previousTimestampNanos;
+
+    private double x, y, heading;
+    private double velocityX, velocityY, angularVelocity; // Field frame
+
+    public MecanumOdometry() {
+        this(
+                RobotConstants.TICKS_PER_METER,
+                RobotConstants.HALF_TRACK_WIDTH_METERS + RobotConstants.HALF_WHEEL_BASE_METERS
+        );
+    }
+
+    /** @param turningRadiusMeters HALF_TRACK_WIDTH + HALF_WHEEL_BASE */
+    public MecanumOdometry(double countsPerMeter, double turningRadiusMeters) {
+        this.metersPerCount = 1 / countsPerMeter;
+        this.turningRadius = turningRadiusMeters;
+    }
+
+    /**
+     * Call once per control cycle with the freshly bulk-read wheel counts.
+     * @param headingRadians From the IMU (counter-clockwise positive), NaN = encoders only
+     */
+    public void update(int frontLeft, int frontRight, int backLeft, int backRight,
+                       double headingRadians, long timestampNanos) {
+        if (!hasCounts) {
+            rememberCounts(frontLeft, frontRight, backLeft, backRight);
+            previousHeading = headingRadians;
+            previousTimestampNanos = timestampNanos;
+            hasCounts = true;
+            return;
+        }
+
+        double fl = (frontLeft  - previousCounts[0]) * metersPerCount;
+        double fr = (frontRight - previousCounts[1]) * metersPerCount;
+        double bl = (backLeft   - previousCounts[2]) * metersPerCount;
+        double br = (backRight  - previousCounts[3]) * metersPerCount;
+        rememberCounts(frontLeft, frontRight, backLeft, backRight);
+
+        double dx = (fl + fr + bl + br) / 4;
+        double dy = (-fl + fr + bl - br) / 4;
+        double dTheta = (-fl + fr - bl + br) / (4 * turningRadius);
+
+        if (!Double.isNaN(headingRadians) && !Double.isNaN(previousHeading)) {
+            double headingChange = Misc.wrapRadians(headingRadians - previousHeading);
+            if (Math.abs(headingChange - dTheta) < MAX_HEADING_DISAGREEMENT_RADIANS)
+                dTheta = headingChange;
+        }
+        previousHeading = headingRadians;
+
+        // Arc integration, in the robot frame at the start of the cycle
+        double sinOverTheta, oneMinusCosOverTheta;
+        if (Math.abs(dTheta) < 1e-6) {
+            sinOverTheta = 1 - dTheta * dTheta / 6;
+            oneMinusCosOverTheta = dTheta / 2;
+        } else {
+            sinOverTheta = Math.sin(dTheta) / dTheta;
+            oneMinusCosOverTheta = (1 - Math.cos(dTheta)) / dTheta;
+        }
+
+        double localX = dx * sinOverTheta - dy * oneMinusCosOverTheta;
+        double localY = dx * oneMinusCosOverTheta + dy * sinOverTheta;
+
+        double cos = Math.cos(heading);
+        double sin = Math.sin(heading);
+        double fieldDx = localX * cos - localY * sin;
+        double fieldDy = localX * sin + localY * cos;
+
+        x += fieldDx;
+        y += fieldDy;
+        heading = Misc.wrapRadians(heading + dTheta);
+
+        double dt = (timestampNanos - previousTimestampNanos) * 1e-9;
+        previousTimestampNanos = timestampNanos;
+        if (dt > 0) {
+            velocityX = fieldDx / dt;
+            velocityY = fieldDy / dt;
+            angularVelocity = dTheta / dt;
+        }
+    }
+
+    /** The encoders were just reset, the next update only takes the new counts in. */
+    public void resetEncoderBaseline() {
+        hasCounts = false;
+    }
+
+    /** The heading source was just reset (e.g. IMU yaw), don't count the jump as a turn. */
+    public void resetHeadingBaseline() {
+        previousHeading = Double.NaN;
+    }
+
+    /** E.g. the known starting position. Keeps tracking from there. */
+    public void setPose(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.heading = Misc.wrapRadians(heading);
+    }
+
+    public void setPose(Pose2d pose) {
+        setPose(pose.x, pose.y, pose.heading);
+    }
+
+    /** Allocates */
+    public Pose2d getPose() {
+        return new Pose2d(x, y, heading);
+    }
+
+    /** Meters */
+    public double getX() { return x; }
+    public double getY() { return y; }
+    /** Radians, counter-clockwise positive, [-π, π) */
+    public double getHeading() { return heading; }
+
+    /** Field frame, m/s, from the last update */
+    public double getVelocityX() { return velocityX; }
+    public double getVelocityY() { return velocityY; }
+    /** Radians per second */
+    public double getAngularVelocity() { return angularVelocity; }
+
+    private void rememberCounts(int frontLeft, int frontRight, int backLeft, int backRight) {
+        previousCounts[0] = frontLeft;
+        previousCounts[1] = frontRight;
+        previousCounts[2] = backLeft;
+        previousCounts[3] = backRight;
+    }
+}
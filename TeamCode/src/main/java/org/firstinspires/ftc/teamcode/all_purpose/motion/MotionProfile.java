@@ -0,0 +1,192 @@
+package org.firstinspires.ftc.teamcode.all_purpose.motion;
+
+/**
+ * A time-optimal, 1D, rest-to-rest movement plan: where to be, how fast, and how hard to
+ * accelerate at every moment, without ever exceeding the given limits.<br><br>
+ *
+ * Trapezoidal (velocity and acceleration limited):
+ * <pre>
+ *   velocity   ___________
+ *             /           \            Acceleration jumps straight to ±max,
+ *            /             \           which jerks the robot (wheel slip).
+ *   ________/               \________
+ * </pre>
+ *
+ * S-Curve (also jerk limited):
+ * <pre>
+ *   velocity    _________
+ *             /´         `\            Acceleration ramps up and down,
+ *            /             \           smoother, slightly slower.
+ *   _______.´               `.______
+ * </pre>
+ *
+ * Both are built from up to 7 constant-jerk segments (a trapezoid is just an
+ * S-curve with infinite jerk), integrated exactly. The whole profile is then sampled
+ * ONCE, when created, every {@link #SAMPLE_PERIOD_SECONDS}, into primitive arrays,
+ * so a lookup during the move is an index + a linear interpolation. No allocation.<br><br>
+ *
+ * Distance can be negative, everything is then mirrored. Units are whatever the
+ * limits are in (e.g. meters, m/s, m/s², m/s³).
+ */
+public class MotionProfile {
+    public static final double SAMPLE_PERIOD_SECONDS = 0.005;
+
+    final double duration;
+    final double[] positions;
+    final double[] velocities;
+    final double[] accelerations;
+    private final double lastIntervalSeconds; // Usually shorter than SAMPLE_PERIOD_SECONDS
+
+    //------------------------------------------------------------------------------------------------
+    // Generation
+    //------------------------------------------------------------------------------------------------
+    public static MotionProfile trapezoidal(double distance, double maxVelocity, double maxAcceleration) {
+        double length = Math.abs(distance);
+
+        // Not enough room to reach max velocity -> a triangle
+        double peakVelocity = Math.min(maxVelocity, Math.sqrt(length * maxAcceleration));
+        double accelerationTime = peakVelocity / maxAcceleration;
+        double cruiseTime = peakVelocity > 0 ? (length - peakVelocity * accelerationTime) / peakVelocity : 0;
+
+        double[] durations     = { accelerationTime, Math.max(0, cruiseTime), accelerationTime };
+        double[] jerks         = { 0, 0, 0 };
+        double[] accelerations = { maxAcceleration, 0, -maxAcceleration };
+        return sample(Math.signum(distance), durations, jerks, accelerations);
+    }
+
+    public static MotionProfile sCurve(double distance, double maxVelocity, double maxAcceleration, double maxJerk) {
+        double length = Math.abs(distance);
+
+        // Distance to reach v and come back to 0 is v * accelerationTime(v). Find the
+        // highest v (<= max) that fits, by bisection, it's monotonic.
+        double peakVelocity = maxVelocity;
+        if (peakVelocity * accelerationTime(peakVelocity, maxAcceleration, maxJerk) > length) {
+            double low = 0, high = maxVelocity;
+            for (int i = 0; i < 60; i++) {
+                double middle = (low + high) / 2;
+                if (middle * accelerationTime(middle, maxAcceleration, maxJerk) > length)
+                    high = middle;
+                else
+                    low = middle;
+            }
+            peakVelocity = low;
+        }
+
+        // Jerk phase, then constant acceleration phase (if max acceleration is reached)
+        double jerkTime = Math.min(maxAcceleration / maxJerk, Math.sqrt(peakVelocity / maxJerk));
+        double peakAcceleration = maxJerk * jerkTime;
+        double constantTime = peakAcceleration > 0 ? Math.max(0, peakVelocity / peakAcceleration - jerkTime) : 0;
+        double accelerationTime = 2 * jerkTime + constantTime;
+        double cruiseTime = peakVelocity > 0 ? Math.max(0, (length - peakVelocity * accelerationTime) / peakVelocity) : 0;
+
+        double[] durations = {
+                jerkTime, constantTime, jerkTime,
+                cruiseTime,
+                jerkTime, constantTime, jerkTime
+        };
+        double[] jerks = {
+                maxJerk, 0, -maxJerk,
+                0,
+                -maxJerk, 0, maxJerk
+        };
+        double[] accelerations = {
+                0, peakAcceleration, peakAcceleration,
+                0,
+                0, -peakAcceleration, -peakAcceleration
+        };
+        return sample(Math.signum(distance), durations, jerks, accelerations);
+    }
+
+    /** Time to go from 0 to the velocity (or back), jerk limited. */
+    private static double accelerationTime(double velocity, double maxAcceleration, double maxJerk) {
+        if (velocity >= maxAcceleration * maxAcceleration / maxJerk)
+            return velocity / maxAcceleration + maxAcceleration / maxJerk; // Reaches max acceleration
+        return 2 * Math.sqrt(velocity / maxJerk);
+    }
+
+    /**
+     * @param jerks Constant jerk within each segment
+     * @param startAccelerations Acceleration at the start of each segment (jumps allowed)
+     */
+    private static MotionProfile sample(double sign, double[] durations, double[] jerks, double[] startAccelerations) {
+        double duration = 0;
+        for (double segmentDuration : durations)
+            duration += segmentDuration;
+
+        int sampleCount = (int) Math.ceil(duration / SAMPLE_PERIOD_SECONDS) + 1;
+        double[] positions = new double[sampleCount];
+        double[] velocities = new double[sampleCount];
+        double[] accelerations = new double[sampleCount];
+
+        // Walk the segments, evaluating each sample exactly from its segment's start state
+        int segment = 0;
+        double segmentStart = 0;
+        double startPosition = 0, startVelocity = 0;
+
+        for (int i = 0; i < sampleCount; i++) {
+            double t = Math.min(i * SAMPLE_PERIOD_SECONDS, duration);
+
+            while (segment < durations.length - 1 && t > segmentStart + durations[segment]) {
+                double dt = durations[segment];
+                double a = startAccelerations[segment];
+                double j = jerks[segment];
+                startPosition += startVelocity * dt + a * dt * dt / 2 + j * dt * dt * dt / 6;
+                startVelocity += a * dt + j * dt * dt / 2;
+                segmentStart += dt;
+                segment++;
+            }
+
+            double dt = t - segmentStart;
+            double a = startAccelerations[segment];
+            double j = jerks[segment];
+            positions[i]     = sign * (startPosition + startVelocity * dt + a * dt * dt / 2 + j * dt * dt * dt / 6);
+            velocities[i]    = sign * (startVelocity + a * dt + j * dt * dt / 2);
+            accelerations[i] = sign * (a + j * dt);
+        }
+
+        // Land exactly, no matter the rounding
+        velocities[sampleCount - 1] = 0;
+        accelerations[sampleCount - 1] = 0;
+        return new MotionProfile(duration, positions, velocities, accelerations);
+    }
+
+    /** Already sampled, e.g. loaded by the {@link TrajectoryCache} */
+    MotionProfile(double duration, double[] positions, double[] velocities, double[] accelerations) {
+        this.duration = duration;
+        this.positions = positions;
+        this.velocities = velocities;
+        this.accelerations = accelerations;
+        this.lastIntervalSeconds = duration - (positions.length - 2) * SAMPLE_PERIOD_SECONDS;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Lookup
+    //------------------------------------------------------------------------------------------------
+    /** Seconds */
+    public double getDuration() {
+        return duration;
+    }
+
+    public double getDistance() {
+        return positions[positions.length - 1];
+    }
+
+    /** @param seconds Since the start of the move, clamped to [0, duration] */
+    public double getPosition(double seconds)     { return interpolate(positions, seconds); }
+    public double getVelocity(double seconds)     { return interpolate(velocities, seconds); }
+    public double getAcceleration(double seconds) { return interpolate(accelerations, seconds); }
+
+    private double interpolate(double[] samples, double seconds) {
+        double t = Math.max(0, Math.min(seconds, duration));
+        int last = samples.length - 1;
+        int lower = (int) (t / SAMPLE_PERIOD_SECONDS);
+        if (lower >= last)
+            return samples[last];
+
+        // The last sample is at the duration exactly, so the last interval is shorter.
+        // Dividing it by the full period would never reach the end (v stays slightly > 0).
+        double interval = lower == last - 1 ? lastIntervalSeconds : SAMPLE_PERIOD_SECONDS;
+        double fraction = interval > 0 ? Math.min(1, (t - lower * SAMPLE_PERIOD_SECONDS) / interval) : 1;
+        return samples[lower] + (samples[lower + 1] - samples[lower]) * fraction;
+    }
+}
@@ -0,0 +1,40 @@
+package org.firstinspires.ftc.teamcode.all_purpose.motion;
+
+import java.util.Locale;
+
+/**
+ * Where the robot is on the field, and which way it faces. Immutable.
+ *
+ * <pre>
+ *             +x (forward, at the start)
+ *              ^
+ *              |
+ *   +y  <------+         heading: radians, counter-clockwise positive, 0 = +x
+ * </pre>
+ *
+ * Meters. The origin is wherever the odometry was started or reset to.
+ */
+public final class Pose2d {
+    public final double x;
+    public final double y;
+    public final double heading;
+
+    public Pose2d(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+    }
+
+    public double getHeadingDegrees() {
+        return Math.toDegrees(heading);
+    }
+
+    public double distanceTo(Pose2d other) {
+        return Math.hypot(other.x - x, other.y - y);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "(%.3f m, %.3f m, %.1f°)", x, y, Math.toDegrees(heading));
+    }
+}
@@ -0,0 +1,250 @@
+package org.firstinspires.ftc.teamcode.all_purpose.motion;
+
+/**
+ * A smooth path through a list of field waypoints, for {@code PathFollowCommand}.<br><br>
+ *
+ * The waypoints are joined with a centripetal Catmull-Rom spline, which goes through
+ * every one of them, without the loops and overshoots a uniform one makes where
+ * the waypoints are unevenly spaced:
+ *
+ * <pre>
+ *   waypoints   *--------*                  spline   *------._
+ *                        |                                    `.
+ *                        |                                     |
+ *                        *                                     *
+ * </pre>
+ *
+ * Then, ONCE, when created, it's re-sampled every {@link #SAMPLE_SPACING_METERS} of
+ * arc length into primitive arrays, so "where is the point 0.3 m further along" is an
+ * index + a linear interpolation. Along with the speed the robot may go at every sample:
+ *
+ *   v(s) <= sqrt(maxCentripetalAcceleration / curvature(s))     (don't slide out of curves)
+ *   v(s) <= sqrt(2 · maxAcceleration · (length - s))            (stop at the end)
+ *
+ * Build paths during init, like motion profiles. Meters, field frame, see {@link Pose2d}.
+ */
+public class SplinePath {
+    public static final double SAMPLE_SPACING_METERS = 0.01;
+    private static final int STEPS_PER_SEGMENT = 64; // Before re-sampling, for measuring the arc length
+
+    final double length;
+    final double duration;
+    final double[] xs;
+    final double[] ys;
+    final double[] maxVelocities;
+
+    //------------------------------------------------------------------------------------------------
+    // Generation
+    //------------------------------------------------------------------------------------------------
+    /**
+     * @param coordinates x0, y0, x1, y1, ... At least two waypoints, usually starting
+     *                    where the robot is.
+     */
+    public static SplinePath through(double maxVelocity, double maxAcceleration,
+                                     double maxCentripetalAcceleration, double... coordinates) {
+        if (coordinates.length < 4 || coordinates.length % 2 != 0)
+            throw new IllegalArgumentException("SplinePath needs at least two (x, y) waypoints");
+
+        int count = coordinates.length / 2;
+        double[] pointXs = new double[count + 2];
+        double[] pointYs = new double[count + 2];
+        for (int i = 0; i < count; i++) {
+            pointXs[i + 1] = coordinates[2 * i];
+            pointYs[i + 1] = coordinates[2 * i + 1];
+        }
+
+        // Mirrored phantom points at both ends, so the spline starts and ends heading
+        // straight at / away from the neighbouring waypoint
+        pointXs[0] = 2 * pointXs[1] - pointXs[2];
+        pointYs[0] = 2 * pointYs[1] - pointYs[2];
+        pointXs[count + 1] = 2 * pointXs[count] - pointXs[count - 1];
+        pointYs[count + 1] = 2 * pointYs[count] - pointYs[count - 1];
+
+        return new SplinePath(pointXs, pointYs, maxVelocity, maxAcceleration, maxCentripetalAcceleration);
+    }
+
+    private SplinePath(double[] pointXs, double[] pointYs,
+                       double maxVelocity, double maxAcceleration, double maxCentripetalAcceleration) {
+        // Dense walk along the spline, measuring the arc length as we go
+        int segments = pointXs.length - 3;
+        int denseCount = segments * STEPS_PER_SEGMENT + 1;
+        double[] denseXs = new double[denseCount];
+        double[] denseYs = new double[denseCount];
+        double[] denseLengths = new double[denseCount];
+        double[] point = new double[2];
+
+        for (int segment = 0; segment < segments; segment++) {
+            for (int step = 0; step <= STEPS_PER_SEGMENT; step++) {
+                if (segment > 0 && step == 0)
+                    continue; // Same as the last point of the previous segment
+
+                evaluate(pointXs, pointYs, segment, (double) step / STEPS_PER_SEGMENT, point);
+                int i = segment * STEPS_PER_SEGMENT + step;
+                denseXs[i] = point[0];
+                denseYs[i] = point[1];
+                if (i > 0)
+                    denseLengths[i] = denseLengths[i - 1] + Math.hypot(point[0] - denseXs[i - 1], point[1] - denseYs[i - 1]);
+            }
+        }
+        length = denseLengths[denseCount - 1];
+
+        // Re-sample at even arc length steps
+        int sampleCount = (int) Math.ceil(length / SAMPLE_SPACING_METERS) + 1;
+        xs = new double[sampleCount];
+        ys = new double[sampleCount];
+        int dense = 0;
+        for (int i = 0; i < sampleCount; i++) {
+            double s = Math.min(i * SAMPLE_SPACING_METERS, length);
+            while (dense < denseCount - 2 && denseLengths[dense + 1] < s)
+                dense++;
+
+            double span = denseLengths[dense + 1] - denseLengths[dense];
+            double fraction = span > 0 ? (s - denseLengths[dense]) / span : 0;
+            xs[i] = denseXs[dense] + (denseXs[dense + 1] - denseXs[dense]) * fraction;
+            ys[i] = denseYs[dense] + (denseYs[dense + 1] - denseYs[dense]) * fraction;
+        }
+
+        // Speed limits, curvature from the circle through each sample and its neighbours
+        maxVelocities = new double[sampleCount];
+        for (int i = 0; i < sampleCount; i++) {
+            double curvature = i > 0 && i < sampleCount - 1 ? curvature(i) : 0;
+            maxVelocities[i] = curvature > 1e-6
+                    ? Math.min(maxVelocity, Math.sqrt(maxCentripetalAcceleration / curvature))
+                    : maxVelocity;
+        }
+
+        // Backwards from the end, so there's always room to brake for what's coming
+        maxVelocities[sampleCount - 1] = 0;
+        for (int i = sampleCount - 2; i >= 0; i--) {
+            double ds = Math.min((i + 1) * SAMPLE_SPACING_METERS, length) - i * SAMPLE_SPACING_METERS;
+            maxVelocities[i] = Math.min(maxVelocities[i],
+                    Math.sqrt(maxVelocities[i + 1] * maxVelocities[i + 1] + 2 * maxAcceleration * ds));
+        }
+
+        // How long it takes, accelerating from a stop, for planning
+        double time = 0;
+        double velocity = 0;
+        for (int i = 1; i < sampleCount; i++) {
+            double ds = getSampleDistance(i) - getSampleDistance(i - 1);
+            double next = Math.min(maxVelocities[i], Math.sqrt(velocity * velocity + 2 * maxAcceleration * ds));
+            if (velocity + next > 0)
+                time += 2 * ds / (velocity + next);
+            velocity = next;
+        }
+        duration = time;
+    }
+
+    /** Already sampled, e.g. loaded by the {@link TrajectoryCache} */
+    SplinePath(double length, double duration, double[] xs, double[] ys, double[] maxVelocities) {
+        this.length = length;
+        this.duration = duration;
+        this.xs = xs;
+        this.ys = ys;
+        this.maxVelocities = maxVelocities;
+    }
+
+    /**
+     * Centripetal Catmull-Rom (Barry and Goldman's pyramid), between points segment + 1
+     * and segment + 2, u in [0, 1].
+     */
+    private static void evaluate(double[] xs, double[] ys, int segment, double u, double[] result) {
+        double x0 = xs[segment],     y0 = ys[segment];
+        double x1 = xs[segment + 1], y1 = ys[segment + 1];
+        double x2 = xs[segment + 2], y2 = ys[segment + 2];
+        double x3 = xs[segment + 3], y3 = ys[segment + 3];
+
+        // Knot spacing = sqrt(distance), at least a tiny bit so repeated points don't divide by 0
+        double t0 = 0;
+        double t1 = t0 + Math.max(1e-6, Math.sqrt(Math.hypot(x1 - x0, y1 - y0)));
+        double t2 = t1 + Math.max(1e-6, Math.sqrt(Math.hypot(x2 - x1, y2 - y1)));
+        double t3 = t2 + Math.max(1e-6, Math.sqrt(Math.hypot(x3 - x2, y3 - y2)));
+        double t = t1 + (t2 - t1) * u;
+
+        double a1x = ((t1 - t) * x0 + (t - t0) * x1) / (t1 - t0);
+        double a1y = ((t1 - t) * y0 + (t - t0) * y1) / (t1 - t0);
+        double a2x = ((t2 - t) * x1 + (t - t1) * x2) / (t2 - t1);
+        double a2y = ((t2 - t) * y1 + (t - t1) * y2) / (t2 - t1);
+        double a3x = ((t3 - t) * x2 + (t - t2) * x3) / (t3 - t2);
+        double a3y = ((t3 - t) * y2 + (t - t2) * y3) / (t3 - t2);
+
+        double b1x = ((t2 - t) * a1x + (t - t0) * a2x) / (t2 - t0);
+        double b1y = ((t2 - t) * a1y + (t - t0) * a2y) / (t2 - t0);
+        double b2x = ((t3 - t) * a2x + (t - t1) * a3x) / (t3 - t1);
+        double b2y = ((t3 - t) * a2y + (t - t1) * a3y) / (t3 - t1);
+
+        result[0] = ((t2 - t) * b1x + (t - t1) * b2x) / (t2 - t1);
+        result[1] = ((t2 - t) * b1y + (t - t1) * b2y) / (t2 - t1);
+    }
+
+    /** 1 / radius of the circle through samples i - 1, i, i + 1 */
+    private double curvature(int i) {
+        double ax = xs[i] - xs[i - 1],     ay = ys[i] - ys[i - 1];
+        double bx = xs[i + 1] - xs[i],     by = ys[i + 1] - ys[i];
+        double cx = xs[i + 1] - xs[i - 1], cy = ys[i + 1] - ys[i - 1];
+
+        double sides = Math.hypot(ax, ay) * Math.hypot(bx, by) * Math.hypot(cx, cy);
+        return sides > 0 ? 2 * Math.abs(ax * by - ay * bx) / sides : 0;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Lookup
+    //------------------------------------------------------------------------------------------------
+    /** Meters, along the path */
+    public double getLength() {
+        return length;
+    }
+
+    /** Seconds, if driven exactly at the speed limits. Followers take a little longer. */
+    public double getDuration() {
+        return duration;
+    }
+
+    public int getSampleCount() {
+        return xs.length;
+    }
+
+    /** @param index Sample, every {@link #SAMPLE_SPACING_METERS} along the path */
+    public double getSampleX(int index) { return xs[index]; }
+    public double getSampleY(int index) { return ys[index]; }
+
+    /** @param distance Along the path, clamped to [0, length] */
+    public double getX(double distance) { return interpolate(xs, distance); }
+    public double getY(double distance) { return interpolate(ys, distance); }
+    /** m/s, the most the robot should be going there */
+    public double getMaxVelocity(double distance) { return interpolate(maxVelocities, distance); }
+
+    /**
+     * The sample closest to the point, searching only from the given sample up to
+     * maxAdvance meters further. Keeps the progress monotonic, so a path crossing
+     * itself can't make the robot skip ahead (or back).
+     */
+    public int findClosestSample(double x, double y, int fromIndex, double maxAdvance) {
+        int last = Math.min(xs.length - 1, fromIndex + (int) Math.ceil(maxAdvance / SAMPLE_SPACING_METERS));
+        int closest = fromIndex;
+        double closestDistance = Double.POSITIVE_INFINITY;
+
+        for (int i = fromIndex; i <= last; i++) {
+            double dx = xs[i] - x;
+            double dy = ys[i] - y;
+            double distance = dx * dx + dy * dy;
+            if (distance < closestDistance) {
+                closestDistance = distance;
+                closest = i;
+            }
+        }
+        return closest;
+    }
+
+    /** Meters along the path of a sample */
+    public double getSampleDistance(int index) {
+        return Math.min(index * SAMPLE_SPACING_METERS, length);
+    }
+
+    private double interpolate(double[] samples, double distance) {
+        double index = Math.max(0, Math.min(distance, length)) / SAMPLE_SPACING_METERS;
+        int lower = Math.min((int) index, samples.length - 1);
+        int upper = Math.min(lower + 1, samples.length - 1);
+        double fraction = Math.min(1, index - lower);
+        return samples[lower] + (samples[upper] - samples[lower]) * fraction;
+    }
+}
@@ -0,0 +1,257 @@
+package org.firstinspires.ftc.teamcode.all_purpose.motion;
+
+import org.firstinspires.ftc.teamcode.all_purpose.RobotConstants;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+
+/**
+ * Generated {@link MotionProfile}s and {@link SplinePath}s, saved to disk, so the next
+ * init only has to read them back instead of generating them all over again.<br><br>
+ *
+ * Every trajectory is one file, named after a 64-bit hash (FNV-1a) of everything that
+ * went into generating it: the inputs (distance, limits, waypoints), the sampling
+ * constants, TICKS_PER_METER and the file format version. Change any of those and
+ * the key changes, so a stale file is simply never looked at again.<br><br>
+ *
+ * File format, little-endian:
+ * <pre>
+ *    0  int      MAGIC ("FTCT")
+ *    4  int      FORMAT_VERSION
+ *    8  long     key (again, to catch renamed / corrupted files)
+ *   16  int      kind (PROFILE or PATH)
+ *   20  int      sample count n
+ *   24  double   duration, seconds
+ *   32  double   length, meters (paths only)
+ *   40  double[n] x 3
+ *                  profile: positions, velocities, accelerations
+ *                  path:    xs, ys, max velocities
+ * </pre>
+ *
+ * Loading maps the file read-only (a {@link MappedByteBuffer}) and bulk-copies the three
+ * arrays out of it, no parsing, no per-value reads. Anything wrong with a file (missing,
+ * old version, wrong size, IO error) just means generating it, and writing it again.
+ * Writes go to a temporary file first, then get renamed, so a half-written file never
+ * has the real name.<br><br>
+ *
+ * Files can be generated off the robot too, see Benchmarks/.../TrajectoryCacheTool.
+ */
+public class TrajectoryCache {
+    public static final File DEFAULT_DIRECTORY = new File("/sdcard/FIRST/trajectories");
+    /** Bump when the format, or the way trajectories are generated, changes */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int MAGIC = 0x54435446; // "FTCT", little-endian
+    private static final int HEADER_BYTES = 40;
+    private static final int PROFILE = 1;
+    private static final int PATH = 2;
+
+    /** Generates every time, nothing is read or written */
+    public static final TrajectoryCache DISABLED = new TrajectoryCache(null);
+
+    private final File directory;
+    private int loadedCount;
+    private int generatedCount;
+    private int failedCount;
+
+    /** @param directory Created if needed. Null = disabled. */
+    public TrajectoryCache(File directory) {
+        this.directory = directory;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Trajectories
+    //------------------------------------------------------------------------------------------------
+    /** Same as {@link MotionProfile#trapezoidal} */
+    public MotionProfile trapezoidal(double distance, double maxVelocity, double maxAcceleration) {
+        long key = new Key(PROFILE).add(1).add(distance).add(maxVelocity).add(maxAcceleration).hash;
+        MotionProfile profile = loadProfile(key);
+        if (profile == null) {
+            profile = MotionProfile.trapezoidal(distance, maxVelocity, maxAcceleration);
+            save(key, PROFILE, profile.duration, 0, profile.positions, profile.velocities, profile.accelerations);
+        }
+        return profile;
+    }
+
+    /** Same as {@link MotionProfile#sCurve} */
+    public MotionProfile sCurve(double distance, double maxVelocity, double maxAcceleration, double maxJerk) {
+        long key = new Key(PROFILE).add(2).add(distance).add(maxVelocity).add(maxAcceleration).add(maxJerk).hash;
+        MotionProfile profile = loadProfile(key);
+        if (profile == null) {
+            profile = MotionProfile.sCurve(distance, maxVelocity, maxAcceleration, maxJerk);
+            save(key, PROFILE, profile.duration, 0, profile.positions, profile.velocities, profile.accelerations);
+        }
+        return profile;
+    }
+
+    /** Same as {@link SplinePath#through} */
+    public SplinePath path(double maxVelocity, double maxAcceleration,
+                           double maxCentripetalAcceleration, double... coordinates) {
+        Key key = new Key(PATH).add(maxVelocity).add(maxAcceleration).add(maxCentripetalAcceleration).add(coordinates.length);
+        for (double coordinate : coordinates)
+            key.add(coordinate);
+
+        SplinePath path = null;
+        double[][] samples = load(key.hash, PATH);
+        if (samples != null)
+            path = new SplinePath(samples[3][1], samples[3][0], samples[0], samples[1], samples[2]);
+
+        if (path == null) {
+            path = SplinePath.through(maxVelocity, maxAcceleration, maxCentripetalAcceleration, coordinates);
+            save(key.hash, PATH, path.duration, path.length, path.xs, path.ys, path.maxVelocities);
+        }
+        return path;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Stats
+    //------------------------------------------------------------------------------------------------
+    /** Read back from disk */
+    public int getLoadedCount()    { return loadedCount; }
+    /** Not on disk (yet), generated */
+    public int getGeneratedCount() { return generatedCount; }
+    /** Files that couldn't be read or written, generated instead */
+    public int getFailedCount()    { return failedCount; }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "Trajectories %d loaded, %d generated, %d failed",
+                loadedCount, generatedCount, failedCount);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Files
+    //------------------------------------------------------------------------------------------------
+    private MotionProfile loadProfile(long key) {
+        double[][] samples = load(key, PROFILE);
+        return samples != null ? new MotionProfile(samples[3][0], samples[0], samples[1], samples[2]) : null;
+    }
+
+    /** @return The 3 sample arrays, then {duration, length}. Null if there's no valid file. */
+    private double[][] load(long key, int kind) {
+        if (directory == null) {
+            generatedCount++;
+            return null;
+        }
+
+        File file = fileFor(key);
+        if (!file.isFile()) {
+            generatedCount++;
+            return null;
+        }
+
+        try (FileInputStream input = new FileInputStream(file)) { // Not FileChannel.open(), that's API 26
+            FileChannel channel = input.getChannel();
+            long size = channel.size();
+            if (size < HEADER_BYTES)
+                return invalid();
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            int count = buffer.getInt(20);
+            if (buffer.getInt(0) != MAGIC
+                    || buffer.getInt(4) != FORMAT_VERSION
+                    || buffer.getLong(8) != key
+                    || buffer.getInt(16) != kind
+                    || count < 1
+                    || size != HEADER_BYTES + 3L * count * Double.BYTES)
+                return invalid();
+
+            double[][] samples = { new double[count], new double[count], new double[count],
+                    { buffer.getDouble(24), buffer.getDouble(32) } };
+            buffer.position(HEADER_BYTES);
+            DoubleBuffer doubles = buffer.asDoubleBuffer(); // Keeps the little-endian order
+            for (int i = 0; i < 3; i++)
+                doubles.get(samples[i]);
+
+            loadedCount++;
+            return samples;
+        } catch (IOException | RuntimeException e) {
+            return invalid();
+        }
+    }
+
+    private double[][] invalid() {
+        failedCount++;
+        return null;
+    }
+
+    private void save(long key, int kind, double duration, double length, double[]... samples) {
+        if (directory == null)
+            return;
+
+        int count = samples[0].length;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 3 * count * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putLong(key)
+                .putInt(kind)
+                .putInt(count)
+                .putDouble(duration)
+                .putDouble(length);
+        for (double[] array : samples) {
+            buffer.asDoubleBuffer().put(array); // Views don't move the parent, so move it by hand
+            buffer.position(buffer.position() + array.length * Double.BYTES);
+        }
+        buffer.position(0);
+
+        File file = fileFor(key);
+        File temporary = new File(directory, file.getName() + ".tmp");
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs())
+                throw new IOException("Can't create " + directory);
+
+            try (FileOutputStream output = new FileOutputStream(temporary)) {
+                FileChannel channel = output.getChannel();
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+            }
+            if (!temporary.renameTo(file))
+                throw new IOException("Can't rename " + temporary);
+        } catch (IOException e) {
+            failedCount++;
+            //noinspection ResultOfMethodCallIgnored
+            temporary.delete();
+        }
+    }
+
+    private File fileFor(long key) {
+        return new File(directory, String.format(Locale.US, "%016x.traj", key));
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Key
+    //------------------------------------------------------------------------------------------------
+    /** FNV-1a, 64 bit, over the exact bits of every value. Starts with everything that isn't an input. */
+    private static final class Key {
+        long hash = 0xcbf29ce484222325L;
+
+        Key(int kind) {
+            add(FORMAT_VERSION);
+            add(kind);
+            add(RobotConstants.TICKS_PER_METER);
+            add(MotionProfile.SAMPLE_PERIOD_SECONDS);
+            add(SplinePath.SAMPLE_SPACING_METERS);
+        }
+
+        Key add(double value) {
+            return add(Double.doubleToLongBits(value + 0.0)); // -0.0 -> 0.0
+        }
+
+        Key add(long value) {
+            for (int i = 0; i < 8; i++) {
+                hash ^= (value >>> (8 * i)) & 0xff;
+                hash *= 0x100000001b3L;
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.firstinspires.ftc.teamcode.all_purpose.processors;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.imgproc.Moments;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The OpenCV part of the {@link ColorDetectionProcessor}, one stage per method,
+ * so the processor can time each one. <br><br>
+ *
+ * Only depends on OpenCV (no SDK classes), so the Benchmarks module can run it
+ * on a desktop JVM, on recorded frames.
+ *
+ * <pre>
+ *   RGB frame -> toHsv() -> mask() -> cleanUp() -> findLargestContour() -> locate()
+ * </pre>
+ */
+public class ColorDetectionPipeline {
+    // Lenient bounds for filtering white objects
+    public static final Scalar LOWER_HSV = new Scalar(0, 0, 178);
+    public static final Scalar UPPER_HSV = new Scalar(172,111,255);
+
+    private Mat hsvFrame;
+    private Mat masked;
+
+    public void toHsv(Mat frame) {
+        // Convert RGBA frame to HSV
+        hsvFrame = new Mat();
+        Imgproc.cvtColor(frame, hsvFrame, Imgproc.COLOR_RGB2HSV);
+    }
+
+    public void mask() {
+        // Filter according to the lower HSV and higher HSV
+        masked = new Mat();
+        Core.inRange(hsvFrame, LOWER_HSV, UPPER_HSV, masked);
+    }
+
+    public void cleanUp() {
+        // Additional image cleanup
+        Mat kernel = Imgproc.getStructuringElement(Imgproc.MORPH_RECT, new Size(5, 5));
+        Imgproc.morphologyEx(masked, masked, Imgproc.MORPH_OPEN, kernel);
+        Imgproc.morphologyEx(masked, masked, Imgproc.MORPH_CLOSE, kernel);
+    }
+
+    /**
+     * Also releases this frame's intermediate images.
+     * @return null if nothing was found, otherwise the caller has to release() it
+     */
+    public MatOfPoint findLargestContour() {
+        // Find contours of the detected white pixels
+        List<MatOfPoint> contours = new ArrayList<>();
+        Mat hierarchy = new Mat(); // Not really used
+        Imgproc.findContours(masked, contours, hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+
+        // Find the largest contour
+        MatOfPoint largestContour = null;
+        double maxArea = 0;
+
+        for (MatOfPoint contour : contours) {
+            double area = Imgproc.contourArea(contour);
+            if (area > maxArea) {
+                maxArea = area;
+                largestContour = contour;
+            }
+        }
+
+        // For testing purposes only
+        // Core.copyTo(masked, frame, masked);
+
+        // Cleanup
+        hsvFrame.release();
+        masked.release();
+        contours.clear();
+        hierarchy.release();
+        return largestContour;
+    }
+
+    /** Writes the center of the contour into the given point, then releases the contour. */
+    public static void locate(MatOfPoint contour, Point location) {
+        Moments moments = Imgproc.moments(contour);
+        location.x = moments.get_m10() / moments.get_m00();
+        location.y = moments.get_m01() / moments.get_m00();
+        contour.release();
+    }
+}
@@ -1,7 +1,5 @@
 package org.firstinspires.ftc.teamcode.all_purpose.processors;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
 import android.graphics.Canvas;
@@ -9,30 +7,32 @@ import android.graphics.Color;
 import android.graphics.Paint;
 
 import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibration;
+import org.firstinspires.ftc.teamcode.all_purpose.LoopProfiler;
 import org.firstinspires.ftc.vision.VisionProcessor;
-import org.opencv.core.Core;
 import org.opencv.core.Mat;
 import org.opencv.core.MatOfPoint;
 import org.opencv.core.Point;
-import org.opencv.core.Scalar;
-import org.opencv.core.Size;
-import org.opencv.imgproc.Imgproc;
-import org.opencv.imgproc.Moments;
 
 /**
  * Currently Work In Progress ....
  */
 public class ColorDetectionProcessor implements VisionProcessor {
-    // Lenient bounds for filtering white objects
-    private static final Scalar LOWER_HSV = new Scalar(0, 0, 178);
-    private static final Scalar UPPER_HSV = new Scalar(172,111,255);
     private static final int CANVAS_PADDING_PX = 12;
 
+    private final ColorDetectionPipeline pipeline = new ColorDetectionPipeline();
     private final AtomicReference<Point> approxLocation = new AtomicReference<>();
     private final Object drawSync = new Object(); // Multi-threading ..
     private int cameraHeight;
     private int cameraWidth;
 
+    // Runs on the vision thread, so it gets its own profiler
+    private final LoopProfiler profiler = new LoopProfiler("Color");
+    private final int hsvPhase = profiler.addPhase("HSV");
+    private final int maskPhase = profiler.addPhase("Mask");
+    private final int morphologyPhase = profiler.addPhase("Morphology");
+    private final int contoursPhase = profiler.addPhase("Contours");
+    private final int momentsPhase = profiler.addPhase("Moments");
+
     public enum FoundRegion {
         NONE,
         LEFT,
@@ -49,56 +49,31 @@ public class ColorDetectionProcessor implements VisionProcessor {
 
     @Override
     public Object processFrame(Mat frame, long captureTimeNanos) {
-        // Convert RGBA frame to HSV
-        Mat hsvFrame = new Mat();
-        Imgproc.cvtColor(frame, hsvFrame, Imgproc.COLOR_RGB2HSV);
-
-        // Filter according to the lower HSV and higher HSV
-        Mat masked = new Mat();
-        Core.inRange(hsvFrame, LOWER_HSV, UPPER_HSV, masked);
-
-        // Additional image cleanup
-        Mat kernel = Imgproc.getStructuringElement(Imgproc.MORPH_RECT, new Size(5, 5));
-        Imgproc.morphologyEx(masked, masked, Imgproc.MORPH_OPEN, kernel);
-        Imgproc.morphologyEx(masked, masked, Imgproc.MORPH_CLOSE, kernel);
-
-        // Find contours of the detected white pixels
-        List<MatOfPoint> contours = new ArrayList<>();
-        Mat hierarchy = new Mat(); // Not really used
-        Imgproc.findContours(masked, contours, hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
-
-        // Find the largest contour
-        MatOfPoint largestContour = null;
-        double maxArea = 0;
-
-        for (MatOfPoint contour : contours) {
-            double area = Imgproc.contourArea(contour);
-            if (area > maxArea) {
-                maxArea = area;
-                largestContour = contour;
-            }
-        }
+        profiler.beginCycle();
+
+        pipeline.toHsv(frame);
+        profiler.mark(hsvPhase);
 
-        // For testing purposes only
-        // Core.copyTo(masked, frame, masked);
+        pipeline.mask();
+        profiler.mark(maskPhase);
 
-        // Cleanup
-        hsvFrame.release();
-        masked.release();
-        contours.clear();
-        hierarchy.release();
+        pipeline.cleanUp();
+        profiler.mark(morphologyPhase);
+
+        MatOfPoint largestContour = pipeline.findLargestContour();
+        profiler.mark(contoursPhase);
 
         // Approx
         if (largestContour != null) {
             // Get its center
-            Moments moments = Imgproc.moments(largestContour);
-            approxLocation.get().x = moments.get_m10() / moments.get_m00();
-            approxLocation.get().y = moments.get_m01() / moments.get_m00();
-            largestContour.release();
+            ColorDetectionPipeline.locate(largestContour, approxLocation.get());
 
+            profiler.mark(momentsPhase);
+            profiler.endCycle();
             return true;
         }
 
+        profiler.endCycle();
         return false;
     }
 
@@ -143,6 +118,11 @@ public class ColorDetectionProcessor implements VisionProcessor {
         }
     }
 
+    /** Per-stage timings of {@link #processFrame(Mat, long)}, to be reported from the OpMode. */
+    public LoopProfiler getProfiler() {
+        return profiler;
+    }
+
     public FoundRegion getRegion() {
         Point location = approxLocation.get();
 
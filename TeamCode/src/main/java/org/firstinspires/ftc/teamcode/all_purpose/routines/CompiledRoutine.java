@@ -0,0 +1,71 @@
+package org.firstinspires.ftc.teamcode.all_purpose.routines;
+
+import org.firstinspires.ftc.teamcode.all_purpose.commands.Command;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A {@link Routine}, checked and fully planned, ready to run as one command. Every
+ * profile and path in it was computed by the {@link RoutineCompiler}, so running it is
+ * only lookups and feedback.<br><br>
+ *
+ * Also keeps the plan: when each step should start and how long it should take,
+ * to show on the Driver Station before the match.
+ */
+public class CompiledRoutine implements Command {
+    private final Command command;
+    private final String[] descriptions;
+    private final double[] startSeconds;
+    private final double[] durationSeconds;
+    private final double totalSeconds;
+
+    CompiledRoutine(Command command, List<String> descriptions, List<double[]> timings, double totalSeconds) {
+        this.command = command;
+        this.descriptions = descriptions.toArray(new String[0]);
+        this.startSeconds = new double[timings.size()];
+        this.durationSeconds = new double[timings.size()];
+        for (int i = 0; i < timings.size(); i++) {
+            startSeconds[i] = timings.get(i)[0];
+            durationSeconds[i] = timings.get(i)[1];
+        }
+        this.totalSeconds = totalSeconds;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Plan
+    //------------------------------------------------------------------------------------------------
+    /** Seconds, if every step takes exactly as long as planned */
+    public double getPlannedDuration() {
+        return totalSeconds;
+    }
+
+    public int getStepCount() {
+        return descriptions.length;
+    }
+
+    /**
+     * One line per step: when it starts, how long it takes, what it is. Then the total.
+     * Plain text (no Telemetry) so routines can be compiled off the robot too.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < descriptions.length; i++)
+            builder.append(formatStep(i)).append('\n');
+
+        return builder.append(String.format(Locale.US, "Routine %.2fs planned", totalSeconds)).toString();
+    }
+
+    private String formatStep(int step) {
+        return String.format(Locale.US, "%5.2fs +%4.2fs %s", startSeconds[step], durationSeconds[step], descriptions[step]);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Command
+    //------------------------------------------------------------------------------------------------
+    @Override public void initialize()               { command.initialize(); }
+    @Override public void execute()                  { command.execute(); }
+    @Override public boolean isFinished()            { return command.isFinished(); }
+    @Override public void end(boolean interrupted)   { command.end(interrupted); }
+}
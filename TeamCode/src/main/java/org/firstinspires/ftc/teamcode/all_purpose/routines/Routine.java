@@ -0,0 +1,152 @@
+package org.firstinspires.ftc.teamcode.all_purpose.routines;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What an autonomous should do, step by step, WITHOUT doing any of it yet:
+ *
+ * <pre>
+ *   new Routine()
+ *       .parallel(
+ *           new Routine().drive(1.4),
+ *           new Routine().arm(45))         // Raise the arm on the way
+ *       .turn(90)
+ *       .openClaw(Routine.Side.BOTH)
+ *       .waitMs(500)
+ *       .closeClaw(Routine.Side.BOTH);
+ * </pre>
+ *
+ * {@link RoutineCompiler} turns it into a {@link CompiledRoutine} during init: it
+ * checks it, plans every motion profile and path, and works out when each step
+ * should happen. After the start, nothing is left to compute.<br><br>
+ *
+ * Units and directions follow SelfDriving: meters, degrees, turn() positive = clockwise,
+ * field headings counter-clockwise positive from where the robot started facing.
+ */
+public class Routine {
+    public enum Side {
+        LEFT,
+        RIGHT,
+        BOTH
+    }
+
+    enum StepType {
+        DRIVE,
+        STRAFE,
+        TURN,
+        TURN_TO,
+        DRIVE_TO,
+        FOLLOW,
+        ARM,
+        ARM_BY,
+        OPEN_CLAW,
+        CLOSE_CLAW,
+        WAIT,
+        PARALLEL
+    }
+
+    static final class Step {
+        final StepType type;
+        final double value;
+        final double[] coordinates;
+        final Side side;
+        final Routine[] branches;
+
+        Step(StepType type, double value, double[] coordinates, Side side, Routine[] branches) {
+            this.type = type;
+            this.value = value;
+            this.coordinates = coordinates;
+            this.side = side;
+            this.branches = branches;
+        }
+    }
+
+    final List<Step> steps = new ArrayList<>();
+
+    //------------------------------------------------------------------------------------------------
+    // Drivetrain
+    //------------------------------------------------------------------------------------------------
+    /** Straight, negative = backward */
+    public Routine drive(double meters) {
+        return add(StepType.DRIVE, meters);
+    }
+
+    /** Sideways, positive = left */
+    public Routine strafe(double meters) {
+        return add(StepType.STRAFE, meters);
+    }
+
+    /** In place, by the angle, positive = clockwise */
+    public Routine turn(double degrees) {
+        return add(StepType.TURN, degrees);
+    }
+
+    /** In place, to the field heading, the short way around */
+    public Routine turnTo(double headingDegrees) {
+        return add(StepType.TURN_TO, headingDegrees);
+    }
+
+    /**
+     * Straight to the field pose, turning on the way (mecanum: any direction, any heading)
+     * @param x Field meters, from where the robot started, forward
+     * @param y Field meters, from where the robot started, left
+     */
+    public Routine driveTo(double x, double y, double headingDegrees) {
+        steps.add(new Step(StepType.DRIVE_TO, headingDegrees, new double[] { x, y }, null, null));
+        return this;
+    }
+
+    /**
+     * Through the waypoints in one move, turning to the heading on the way.
+     * @param coordinates x0, y0, x1, y1, ... field meters, starting where the robot will be
+     */
+    public Routine follow(double endHeadingDegrees, double... coordinates) {
+        steps.add(new Step(StepType.FOLLOW, endHeadingDegrees, coordinates.clone(), null, null));
+        return this;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Arm, Claw
+    //------------------------------------------------------------------------------------------------
+    /** To the angle, degrees above horizontal */
+    public Routine arm(double angle) {
+        return add(StepType.ARM, angle);
+    }
+
+    /** By the angle from where the previous step left it, positive = up */
+    public Routine armBy(double degrees) {
+        return add(StepType.ARM_BY, degrees);
+    }
+
+    public Routine openClaw(Side side) {
+        steps.add(new Step(StepType.OPEN_CLAW, 0, null, side, null));
+        return this;
+    }
+
+    public Routine closeClaw(Side side) {
+        steps.add(new Step(StepType.CLOSE_CLAW, 0, null, side, null));
+        return this;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Flow
+    //------------------------------------------------------------------------------------------------
+    public Routine waitMs(long durationMs) {
+        return add(StepType.WAIT, durationMs);
+    }
+
+    /**
+     * Every branch at once, each one step after another, until they're all done.
+     * At most one branch may use the drivetrain, and one the arm.
+     */
+    public Routine parallel(Routine... branches) {
+        steps.add(new Step(StepType.PARALLEL, 0, null, null, branches.clone()));
+        return this;
+    }
+
+    private Routine add(StepType type, double value) {
+        steps.add(new Step(type, value, null, null, null));
+        return this;
+    }
+}
@@ -0,0 +1,333 @@
+package org.firstinspires.ftc.teamcode.all_purpose.routines;
+
+import org.firstinspires.ftc.teamcode.all_purpose.Misc;
+import org.firstinspires.ftc.teamcode.all_purpose.RobotConstants;
+import org.firstinspires.ftc.teamcode.all_purpose.commands.Command;
+import org.firstinspires.ftc.teamcode.all_purpose.commands.DriveToCommand;
+import org.firstinspires.ftc.teamcode.all_purpose.commands.ElbowArmCommand;
+import org.firstinspires.ftc.teamcode.all_purpose.commands.PathFollowCommand;
+import org.firstinspires.ftc.teamcode.all_purpose.commands.ProfiledDriveCommand;
+import org.firstinspires.ftc.teamcode.all_purpose.commands.ProfiledTurnCommand;
+import org.firstinspires.ftc.teamcode.all_purpose.control.ElbowArmController;
+import org.firstinspires.ftc.teamcode.all_purpose.hardware.Claw;
+import org.firstinspires.ftc.teamcode.all_purpose.hardware.RobotHardware;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.MotionProfile;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.Pose2d;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.SplinePath;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.TrajectoryCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.firstinspires.ftc.teamcode.all_purpose.commands.Commands.*;
+
+/**
+ * Turns a {@link Routine} into a {@link CompiledRoutine}, during init.<br><br>
+ *
+ * Walks the steps in order, keeping track of where the robot and the arm SHOULD be
+ * after each one (the plan), so that:
+ * <pre>
+ *   - Every motion profile and path is computed now, from the planned state.
+ *     Turns to a field heading become planned turns of a known size.
+ *   - Every step gets a planned start time and duration.
+ *   - Mistakes are caught now, not in the middle of the match:
+ *       a path not starting where the robot will be, an arm angle out of reach,
+ *       two branches of a parallel block both driving, a routine longer than
+ *       the autonomous period, ...
+ * </pre>
+ *
+ * Profiles and paths come from a {@link TrajectoryCache}, when given one, so a routine
+ * that was compiled before (or pre-generated off the robot) is only read back from disk.<br><br>
+ *
+ * Every drivetrain and arm step also gets a timeout of {@link #TIMEOUT_FACTOR} x its
+ * planned duration + 1 s, so one stuck step can't eat the rest of the period.
+ */
+public class RoutineCompiler {
+    public static final double AUTONOMOUS_SECONDS = 30;
+    public static final double FOLLOW_START_TOLERANCE_METERS = 0.1;
+    public static final double TIMEOUT_FACTOR = 2;
+
+    private final RobotHardware robot;
+    private final ElbowArmController armController;
+    private final TrajectoryCache trajectoryCache;
+
+    private final List<String> descriptions = new ArrayList<>();
+    private final List<double[]> timings = new ArrayList<>();
+
+    /** Where everything should be, and when, at some point of the routine */
+    private static final class State {
+        double x, y, heading; // Meters, degrees counter-clockwise
+        double armAngle;      // Degrees above horizontal
+        double time;          // Seconds since the start
+        boolean usesDrivetrain;
+        boolean usesArm;
+
+        State copy() {
+            State copy = new State();
+            copy.x = x;
+            copy.y = y;
+            copy.heading = heading;
+            copy.armAngle = armAngle;
+            copy.time = time;
+            return copy;
+        }
+    }
+
+    private RoutineCompiler(RobotHardware robot, ElbowArmController armController, TrajectoryCache trajectoryCache) {
+        this.robot = robot;
+        this.armController = armController;
+        this.trajectoryCache = trajectoryCache;
+    }
+
+    /**
+     * Plans the whole routine, from the robot's current pose and arm target.
+     * @throws IllegalArgumentException if the routine can't work, the message says which step and why
+     */
+    public static CompiledRoutine compile(Routine routine, RobotHardware robot, ElbowArmController armController) {
+        return compile(routine, robot, armController, TrajectoryCache.DISABLED);
+    }
+
+    /** Same, loading the profiles and paths from the cache (and saving the new ones) */
+    public static CompiledRoutine compile(Routine routine, RobotHardware robot, ElbowArmController armController,
+                                          TrajectoryCache trajectoryCache) {
+        RoutineCompiler compiler = new RoutineCompiler(robot, armController, trajectoryCache);
+
+        State state = new State();
+        state.x = robot.odometry().getX();
+        state.y = robot.odometry().getY();
+        state.heading = Math.toDegrees(robot.odometry().getHeading());
+        state.armAngle = armController.getTargetAngle();
+
+        Command command = compiler.compileSequence(routine, state, 0);
+        if (state.time > AUTONOMOUS_SECONDS)
+            throw new IllegalArgumentException(String.format(Locale.US,
+                    "Routine is planned to take %.1fs, longer than the %.0fs autonomous period", state.time, AUTONOMOUS_SECONDS));
+
+        return new CompiledRoutine(command, compiler.descriptions, compiler.timings, state.time);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Steps
+    //------------------------------------------------------------------------------------------------
+    /** Advances the state to the end of the routine */
+    private Command compileSequence(Routine routine, State state, int depth) {
+        Command[] commands = new Command[routine.steps.size()];
+        for (int i = 0; i < commands.length; i++)
+            commands[i] = compileStep(routine.steps.get(i), state, depth);
+
+        return sequence(commands);
+    }
+
+    private Command compileStep(Routine.Step step, State state, int depth) {
+        switch (step.type) {
+            case DRIVE:
+            case STRAFE: {
+                boolean strafe = step.type == Routine.StepType.STRAFE;
+                if (step.value == 0)
+                    throw invalid(step, "distance is 0");
+
+                MotionProfile profile = trajectoryCache.sCurve(
+                        step.value,
+                        RobotConstants.MAX_DRIVE_VELOCITY,
+                        RobotConstants.MAX_DRIVE_ACCELERATION,
+                        RobotConstants.MAX_DRIVE_JERK);
+
+                double heading = Math.toRadians(state.heading);
+                state.x += strafe ? -step.value * Math.sin(heading) : step.value * Math.cos(heading);
+                state.y += strafe ?  step.value * Math.cos(heading) : step.value * Math.sin(heading);
+                state.usesDrivetrain = true;
+
+                Command command = new ProfiledDriveCommand(robot.drive(), robot.sensors(), profile,
+                        strafe ? ProfiledDriveCommand.Axis.LEFT : ProfiledDriveCommand.Axis.FORWARD);
+                return timed(command, state, depth, profile.getDuration(),
+                        String.format(Locale.US, "%s %.2f m", strafe ? "Strafe" : "Drive", step.value));
+            }
+
+            case TURN:
+            case TURN_TO: {
+                double change = step.type == Routine.StepType.TURN
+                        ? -step.value // Clockwise positive, the heading isn't
+                        : Misc.wrapDegrees(step.value - state.heading);
+
+                MotionProfile profile = trajectoryCache.trapezoidal(change,
+                        RobotConstants.MAX_TURN_VELOCITY, RobotConstants.MAX_TURN_ACCELERATION); // Same as ProfiledTurnCommand's
+                Command command = ProfiledTurnCommand.planned(robot.drive(), robot.odometry(), state.heading, profile);
+                state.heading = Misc.wrapDegrees(state.heading + change);
+                state.usesDrivetrain = true;
+
+                return timed(command, state, depth, profile.getDuration(),
+                        String.format(Locale.US, "Turn to %.0f°", state.heading));
+            }
+
+            case DRIVE_TO: {
+                double x = step.coordinates[0];
+                double y = step.coordinates[1];
+                double change = Misc.wrapDegrees(step.value - state.heading);
+                double distance = Math.hypot(x - state.x, y - state.y);
+                if (distance == 0 && change == 0)
+                    throw invalid(step, "the robot will already be there");
+
+                // Same limits as DriveToCommand's own profiles
+                MotionProfile translation = trajectoryCache.sCurve(
+                        distance,
+                        RobotConstants.MAX_DRIVE_VELOCITY,
+                        RobotConstants.MAX_DRIVE_ACCELERATION,
+                        RobotConstants.MAX_DRIVE_JERK);
+                MotionProfile rotation = trajectoryCache.trapezoidal(change,
+                        RobotConstants.MAX_TURN_VELOCITY, RobotConstants.MAX_TURN_ACCELERATION);
+
+                Pose2d start = new Pose2d(state.x, state.y, Math.toRadians(state.heading));
+                state.x = x;
+                state.y = y;
+                state.heading = Misc.wrapDegrees(step.value);
+                state.usesDrivetrain = true;
+
+                Command command = DriveToCommand.planned(robot.drive(), robot.odometry(),
+                        start, new Pose2d(x, y, Math.toRadians(state.heading)), translation, rotation);
+                return timed(command, state, depth, Math.max(translation.getDuration(), rotation.getDuration()),
+                        String.format(Locale.US, "Drive to (%.2f, %.2f, %.0f°)", x, y, state.heading));
+            }
+
+            case FOLLOW: {
+                double[] coordinates = step.coordinates;
+                if (coordinates.length < 4 || coordinates.length % 2 != 0)
+                    throw invalid(step, "needs at least two (x, y) waypoints");
+
+                double offset = Math.hypot(coordinates[0] - state.x, coordinates[1] - state.y);
+                if (offset > FOLLOW_START_TOLERANCE_METERS)
+                    throw invalid(step, String.format(Locale.US,
+                            "starts %.2f m away from where the robot will be (%.2f, %.2f)", offset, state.x, state.y));
+
+                SplinePath path = trajectoryCache.path(
+                        RobotConstants.MAX_DRIVE_VELOCITY,
+                        RobotConstants.MAX_DRIVE_ACCELERATION,
+                        RobotConstants.MAX_CENTRIPETAL_ACCELERATION,
+                        coordinates);
+
+                state.x = coordinates[coordinates.length - 2];
+                state.y = coordinates[coordinates.length - 1];
+                state.heading = Misc.wrapDegrees(step.value);
+                state.usesDrivetrain = true;
+
+                Command command = new PathFollowCommand(robot.drive(), robot.odometry(), path, step.value);
+                return timed(command, state, depth, path.getDuration(),
+                        String.format(Locale.US, "Follow %.2f m to (%.2f, %.2f)", path.getLength(), state.x, state.y));
+            }
+
+            case ARM:
+            case ARM_BY: {
+                double target = step.type == Routine.StepType.ARM ? step.value : state.armAngle + step.value;
+                if (target < RobotConstants.ELBOW_REST_ANGLE_DEGREES || target > RobotConstants.ELBOW_MAX_ANGLE_DEGREES)
+                    throw invalid(step, String.format(Locale.US, "arm angle %.0f° is out of reach [%.0f°, %.0f°]",
+                            target, RobotConstants.ELBOW_REST_ANGLE_DEGREES, RobotConstants.ELBOW_MAX_ANGLE_DEGREES));
+
+                MotionProfile profile = trajectoryCache.trapezoidal(target - state.armAngle,
+                        RobotConstants.ELBOW_MAX_VELOCITY, RobotConstants.ELBOW_MAX_ACCELERATION); // Same as the controller's
+                Command command = ElbowArmCommand.planned(armController, state.armAngle, profile);
+                state.armAngle = target;
+                state.usesArm = true;
+
+                return timed(command, state, depth, profile.getDuration(),
+                        String.format(Locale.US, "Arm to %.0f°", target));
+            }
+
+            case OPEN_CLAW:
+            case CLOSE_CLAW: {
+                boolean open = step.type == Routine.StepType.OPEN_CLAW;
+                double position = open ? Claw.OPEN : Claw.CLOSED;
+                Claw claw = robot.claw();
+                Routine.Side side = step.side;
+
+                Command command = instant(() -> {
+                    if (side != Routine.Side.RIGHT)
+                        claw.setLeftPosition(position);
+                    if (side != Routine.Side.LEFT)
+                        claw.setRightPosition(position);
+                });
+                addPlan(state, depth, 0, String.format(Locale.US, "%s claw %s", open ? "Open" : "Close", side));
+                return command;
+            }
+
+            case WAIT: {
+                if (step.value < 0)
+                    throw invalid(step, "can't wait a negative time");
+
+                addPlan(state, depth, step.value / 1000, String.format(Locale.US, "Wait %.0f ms", step.value));
+                state.time += step.value / 1000;
+                return waitMs((long) step.value);
+            }
+
+            case PARALLEL:
+                return compileParallel(step, state, depth);
+        }
+
+        throw new IllegalStateException("Unknown step " + step.type);
+    }
+
+    /** Each branch from the same state, then takes the drivetrain and arm from whichever branch moved them. */
+    private Command compileParallel(Routine.Step step, State state, int depth) {
+        addPlan(state, depth, 0, "Parallel");
+        int planIndex = timings.size() - 1;
+
+        Command[] commands = new Command[step.branches.length];
+        State end = state.copy();
+        boolean drivetrainUsed = false;
+        boolean armUsed = false;
+
+        for (int i = 0; i < commands.length; i++) {
+            State branch = state.copy();
+            commands[i] = compileSequence(step.branches[i], branch, depth + 1);
+
+            if (branch.usesDrivetrain) {
+                if (drivetrainUsed)
+                    throw invalid(step, "more than one branch uses the drivetrain");
+                drivetrainUsed = true;
+                end.x = branch.x;
+                end.y = branch.y;
+                end.heading = branch.heading;
+            }
+            if (branch.usesArm) {
+                if (armUsed)
+                    throw invalid(step, "more than one branch uses the arm");
+                armUsed = true;
+                end.armAngle = branch.armAngle;
+            }
+            end.time = Math.max(end.time, branch.time);
+        }
+
+        timings.get(planIndex)[1] = end.time - state.time;
+        state.x = end.x;
+        state.y = end.y;
+        state.heading = end.heading;
+        state.armAngle = end.armAngle;
+        state.time = end.time;
+        state.usesDrivetrain |= drivetrainUsed;
+        state.usesArm |= armUsed;
+        return parallel(commands);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Helpers
+    //------------------------------------------------------------------------------------------------
+    /** Plans the step, advances the time, and adds the safety timeout */
+    private Command timed(Command command, State state, int depth, double duration, String description) {
+        addPlan(state, depth, duration, description);
+        state.time += duration;
+        return withTimeout(command, (long) ((TIMEOUT_FACTOR * duration + 1) * 1000));
+    }
+
+    private void addPlan(State state, int depth, double duration, String description) {
+        StringBuilder indented = new StringBuilder();
+        for (int i = 0; i < depth; i++)
+            indented.append("  ");
+
+        descriptions.add(indented.append(description).toString());
+        timings.add(new double[] { state.time, duration });
+    }
+
+    private IllegalArgumentException invalid(Routine.Step step, String reason) {
+        return new IllegalArgumentException(String.format(Locale.US,
+                "Routine step %d (%s): %s", descriptions.size() + 1, step.type, reason));
+    }
+}
@@ -0,0 +1,50 @@
+package org.firstinspires.ftc.teamcode.all_purpose.sensors;
+
+import com.qualcomm.robotcore.hardware.IMU;
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+
+/**
+ * The real hub-backed {@link SensorSource}, created by the HardwareManager.
+ * The IMU every sample. The battery voltage changes slowly, so it's only read
+ * every {@link #VOLTAGE_READ_INTERVAL_MS}. No motor reads, those are the
+ * OpMode thread's bulk read.
+ */
+public class HardwareSensorSource implements SensorSource {
+    public static final long VOLTAGE_READ_INTERVAL_MS = 100;
+
+    private final IMU imu;
+    private final VoltageSensor voltageSensor;
+
+    private double yaw;
+    private double pitch;
+    private double roll;
+    private double voltage;
+    private long lastVoltageReadNanos;
+
+    public HardwareSensorSource(IMU imu, VoltageSensor voltageSensor) {
+        this.imu = imu;
+        this.voltageSensor = voltageSensor;
+    }
+
+    @Override
+    public void refresh() {
+        YawPitchRollAngles orientation = imu.getRobotYawPitchRollAngles();
+        yaw   = orientation.getYaw(AngleUnit.DEGREES);
+        pitch = orientation.getPitch(AngleUnit.DEGREES);
+        roll  = orientation.getRoll(AngleUnit.DEGREES);
+
+        long now = System.nanoTime();
+        if (lastVoltageReadNanos == 0 || now - lastVoltageReadNanos >= VOLTAGE_READ_INTERVAL_MS * 1_000_000L) {
+            voltage = voltageSensor.getVoltage();
+            lastVoltageReadNanos = now;
+        }
+    }
+
+    @Override public double getYaw()     { return yaw; }
+    @Override public double getPitch()   { return pitch; }
+    @Override public double getRoll()    { return roll; }
+    @Override public double getVoltage() { return voltage; }
+}
@@ -0,0 +1,147 @@
+package org.firstinspires.ftc.teamcode.all_purpose.sensors;
+
+import org.firstinspires.ftc.teamcode.all_purpose.Misc;
+
+/**
+ * Answers "which way is the robot facing" without ever touching the I2C bus.<br><br>
+ *
+ * The IMU is polled at its own rate by the {@link SensorSampler}. Between two IMU
+ * samples, the heading is extrapolated using the wheel encoders, which are bulk-read
+ * every control cycle anyway:
+ *
+ *   heading = (IMU yaw of the latest sample)
+ *           + (encoder yaw NOW - encoder yaw AT THAT SAMPLE'S TIMESTAMP)
+ *
+ * The sampler only reads the IMU (the encoders belong to the OpMode thread's bulk read),
+ * so the encoder yaw of the last {@link #HISTORY_SIZE} updates is kept here, in a ring
+ * of primitive arrays, and interpolated at the sample's timestamp. The encoder part only
+ * ever covers the few milliseconds since the last sample, and can't drift. The IMU
+ * stays the source of truth, encoders just fill the gaps.<br><br>
+ *
+ * Encoder yaw for a mecanum base (counts already sign-corrected by the motor directions):
+ *
+ *   yaw = (-FL + FR - BL + BR) / 4 / (HALF_TRACK_WIDTH + HALF_WHEEL_BASE)
+ */
+public class HeadingService {
+    /** Updates remembered, ~300ms worth at a 10ms loop, more than any fresh sample's age */
+    public static final int HISTORY_SIZE = 32;
+
+    private final SensorSampler sampler;
+    private final double radiansPerCount;
+    private final long maxExtrapolationNanos;
+
+    private final SensorSnapshot latestSample = new SensorSnapshot();
+    private boolean hasSample;
+    private double currentEncoderYawCounts;
+
+    // Ring of (timestamp, encoder yaw) from the last updates, oldest overwritten
+    private final long[] historyNanos = new long[HISTORY_SIZE];
+    private final double[] historyYawCounts = new double[HISTORY_SIZE];
+    private int historyNewest = -1;
+    private int historyCount;
+    private double headingRadians;
+
+    /**
+     * @param countsPerMeter Wheel encoder counts per meter travelled
+     * @param turningRadiusMeters HALF_TRACK_WIDTH + HALF_WHEEL_BASE, from the robot center
+     * @param maxExtrapolationMs Past this age, the IMU sample is used as is. (Sampler stopped?)
+     */
+    public HeadingService(
+            SensorSampler sampler,
+            double countsPerMeter,
+            double turningRadiusMeters,
+            double maxExtrapolationMs
+    ) {
+        this.sampler = sampler;
+        this.radiansPerCount = 1.0 / (countsPerMeter * turningRadiusMeters);
+        this.maxExtrapolationNanos = (long) (maxExtrapolationMs * 1e6);
+    }
+
+    /** Same as {@link #update(int, int, int, int, long)}, read now */
+    public void update(int frontLeft, int frontRight, int backLeft, int backRight) {
+        update(frontLeft, frontRight, backLeft, backRight, System.nanoTime());
+    }
+
+    /**
+     * Call once per control cycle with the freshly bulk-read wheel counts.
+     * Never blocks, never allocates.
+     * @param timestampNanos {@link System#nanoTime()} of the bulk read
+     */
+    public void update(int frontLeft, int frontRight, int backLeft, int backRight, long timestampNanos) {
+        currentEncoderYawCounts = encoderYawCounts(frontLeft, frontRight, backLeft, backRight);
+        historyNewest = (historyNewest + 1) % HISTORY_SIZE;
+        historyNanos[historyNewest] = timestampNanos;
+        historyYawCounts[historyNewest] = currentEncoderYawCounts;
+        historyCount = Math.min(historyCount + 1, HISTORY_SIZE);
+
+        if (sampler.read(latestSample))
+            hasSample = true;
+
+        if (!hasSample)
+            return;
+
+        headingRadians = Math.toRadians(latestSample.getYaw());
+
+        boolean sampleIsFresh = latestSample.getAgeNanos() <= maxExtrapolationNanos;
+        if (sampleIsFresh) {
+            double sampleEncoderYawCounts = encoderYawCountsAt(latestSample.getTimestampNanos());
+            if (!Double.isNaN(sampleEncoderYawCounts))
+                headingRadians += (currentEncoderYawCounts - sampleEncoderYawCounts) * radiansPerCount;
+        }
+
+        headingRadians = Misc.wrapRadians(headingRadians);
+    }
+
+    /**
+     * The wheel encoders were just reset, so the remembered counts can't be compared with
+     * the new ones. Only the IMU is used until the history covers a sample again.
+     */
+    public void onWheelEncodersReset() {
+        historyNewest = -1;
+        historyCount = 0;
+    }
+
+    /**
+     * Encoder yaw at the time, interpolated between the two updates around it.
+     * The latest one if it's newer than all of them, NaN if it's older.
+     */
+    private double encoderYawCountsAt(long nanos) {
+        int newer = historyNewest;
+        for (int i = 0; i < historyCount; i++) {
+            int index = (historyNewest - i + HISTORY_SIZE) % HISTORY_SIZE;
+            if (historyNanos[index] <= nanos) {
+                if (index == newer)
+                    return historyYawCounts[index];
+
+                double fraction = (double) (nanos - historyNanos[index]) / (historyNanos[newer] - historyNanos[index]);
+                return historyYawCounts[index] + (historyYawCounts[newer] - historyYawCounts[index]) * fraction;
+            }
+            newer = index;
+        }
+        return Double.NaN;
+    }
+
+    /** @return false until the first IMU sample has arrived */
+    public boolean hasHeading() {
+        return hasSample;
+    }
+
+    /** Degrees (°), same convention as the IMU yaw. [-180, 180) */
+    public double getHeading() {
+        return Math.toDegrees(headingRadians);
+    }
+
+    /** Radians, same convention as the IMU yaw. [-π, π) */
+    public double getHeadingRadians() {
+        return headingRadians;
+    }
+
+    /** How old the IMU part of the heading is, in Nanoseconds. */
+    public long getImuSampleAgeNanos() {
+        return hasSample ? latestSample.getAgeNanos() : Long.MAX_VALUE;
+    }
+
+    private static double encoderYawCounts(int frontLeft, int frontRight, int backLeft, int backRight) {
+        return (-frontLeft + frontRight - backLeft + backRight) / 4.0;
+    }
+}
@@ -0,0 +1,181 @@
+package org.firstinspires.ftc.teamcode.all_purpose.sensors;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reads every sensor from a {@link SensorSource} on its own thread at a fixed rate,
+ * so slow I2C reads (IMU, voltage) never stall the OpMode thread. The OpMode thread
+ * then just copies the latest sample with {@link #read(SensorSnapshot)}, which takes
+ * nanoseconds and never blocks.<br><br>
+ *
+ * How does it work? - Double Buffer + Sequence Lock<br>
+ *
+ * There are two slots. The sampler thread always writes into the slot that is NOT
+ * the latest one, then flips {@code latestSlot} to it. Every slot starts with a
+ * sequence number, which is ODD while the slot is being written, and EVEN once it's
+ * done:
+ *
+ *   WRITER:  seq = seq + 1 (odd)  ->  write values  ->  seq = seq + 1 (even)  ->  latestSlot = slot
+ *   READER:  s1 = seq  ->  copy values  ->  s2 = seq  ->  if (s1 is odd || s1 != s2) try again
+ *
+ * Since the writer alternates between the slots, a reader only ever retries if it
+ * got paused for a whole sample period in the middle of copying. No locks, and
+ * neither thread ever waits on the other.<br><br>
+ *
+ * The values live in an {@link AtomicLongArray} (doubles stored as raw bits) rather
+ * than plain fields, because Java only guarantees the ordering above for
+ * volatile / atomic accesses.
+ */
+public class SensorSampler {
+    // Slot layout
+    private static final int SEQUENCE = 0;
+    private static final int SAMPLE_NUMBER = 1;
+    private static final int TIMESTAMP = 2;
+    private static final int YAW = 3;
+    private static final int PITCH = YAW + 1;
+    private static final int ROLL = PITCH + 1;
+    private static final int VOLTAGE = ROLL + 1;
+    private static final int SLOT_SIZE = VOLTAGE + 1;
+
+    private final SensorSource source;
+    private final long periodNanos;
+    private final AtomicLongArray slots = new AtomicLongArray(SLOT_SIZE * 2);
+
+    private volatile int latestSlot = -1; // -1 Until the first sample is published
+    private volatile boolean running;
+    private volatile long lastSampleDurationNanos;
+    private Thread thread;
+    private long sampleNumber;
+
+    /** @param rateHz How many times per second every sensor is read */
+    public SensorSampler(SensorSource source, double rateHz) {
+        this.source = source;
+        this.periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rateHz);
+    }
+
+    public synchronized void start() {
+        if (running)
+            return;
+
+        running = true;
+        thread = new Thread(this::run, "SensorSampler");
+        thread.setDaemon(true); // Never keep the app alive if stop() is forgotten
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread == null)
+            return;
+
+        thread.interrupt();
+        try {
+            thread.join(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        thread = null;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Copy the latest published sample into the given snapshot.
+     * @return false if nothing has been sampled yet (snapshot left untouched)
+     */
+    public boolean read(SensorSnapshot into) {
+        while (true) {
+            int slot = latestSlot;
+            if (slot < 0)
+                return false;
+
+            int base = slot * SLOT_SIZE;
+            long sequence = slots.get(base + SEQUENCE);
+            if ((sequence & 1) != 0)
+                continue; // Being written right now
+
+            into.sampleNumber   = slots.get(base + SAMPLE_NUMBER);
+            into.timestampNanos = slots.get(base + TIMESTAMP);
+            into.yaw     = Double.longBitsToDouble(slots.get(base + YAW));
+            into.pitch   = Double.longBitsToDouble(slots.get(base + PITCH));
+            into.roll    = Double.longBitsToDouble(slots.get(base + ROLL));
+            into.voltage = Double.longBitsToDouble(slots.get(base + VOLTAGE));
+
+            if (slots.get(base + SEQUENCE) == sequence)
+                return true;
+        }
+    }
+
+    /**
+     * Blocks until a sample whose hardware read STARTED at or after the given
+     * {@link System#nanoTime()} is published. E.g. right after resetting the IMU yaw.
+     * @return false if it timed out, or the sampler isn't running
+     */
+    public boolean awaitSampleAfter(long nanoTime, long timeoutMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+        while (running && System.nanoTime() < deadline) {
+            int slot = latestSlot;
+            if (slot >= 0 && slots.get(slot * SLOT_SIZE + TIMESTAMP) >= nanoTime)
+                return true;
+
+            LockSupport.parkNanos(periodNanos / 4);
+        }
+
+        return false;
+    }
+
+    /** How long the last {@link SensorSource#refresh()} took. For Debugging. */
+    public long getLastSampleDurationNanos() {
+        return lastSampleDurationNanos;
+    }
+
+    private void run() {
+        long nextSample = System.nanoTime();
+
+        while (running) {
+            long timestamp = System.nanoTime();
+            try {
+                source.refresh();
+            } catch (RuntimeException e) {
+                // A flaky read shouldn't kill the thread, keep the last good sample
+                nextSample += periodNanos;
+                LockSupport.parkNanos(nextSample - System.nanoTime());
+                continue;
+            }
+
+            lastSampleDurationNanos = System.nanoTime() - timestamp;
+            publish(timestamp);
+
+            // Fixed rate, if a read overran a whole period don't try to "catch up"
+            nextSample += periodNanos;
+            long now = System.nanoTime();
+            if (nextSample < now)
+                nextSample = now;
+
+            LockSupport.parkNanos(nextSample - now);
+        }
+    }
+
+    private void publish(long timestamp) {
+        int slot = latestSlot == 0 ? 1 : 0;
+        int base = slot * SLOT_SIZE;
+        long sequence = slots.get(base + SEQUENCE);
+
+        slots.set(base + SEQUENCE, sequence + 1); // Odd, writing
+        slots.set(base + SAMPLE_NUMBER, ++sampleNumber);
+        slots.set(base + TIMESTAMP, timestamp);
+        slots.set(base + YAW,     Double.doubleToRawLongBits(source.getYaw()));
+        slots.set(base + PITCH,   Double.doubleToRawLongBits(source.getPitch()));
+        slots.set(base + ROLL,    Double.doubleToRawLongBits(source.getRoll()));
+        slots.set(base + VOLTAGE, Double.doubleToRawLongBits(source.getVoltage()));
+        slots.set(base + SEQUENCE, sequence + 2); // Even, done
+
+        latestSlot = slot;
+    }
+}
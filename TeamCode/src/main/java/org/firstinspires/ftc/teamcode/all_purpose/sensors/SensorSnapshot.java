@@ -0,0 +1,34 @@
+package org.firstinspires.ftc.teamcode.all_purpose.sensors;
+
+/**
+ * One timestamped sample of the IMU and the battery voltage, as published by {@link SensorSampler}.<br><br>
+ *
+ * Read-only from the outside: only {@link SensorSampler#read(SensorSnapshot)} fills it in.
+ * Keep one instance around and pass it to read() every loop, so reading the latest
+ * sensor state never allocates.
+ */
+public class SensorSnapshot {
+    long sampleNumber;
+    long timestampNanos;
+    double yaw;
+    double pitch;
+    double roll;
+    double voltage;
+
+    /** Increases by 1 with every sample taken, starting at 1. */
+    public long getSampleNumber()   { return sampleNumber; }
+    /** {@link System#nanoTime()} right before the hardware was read. */
+    public long getTimestampNanos() { return timestampNanos; }
+    /** How old the values are right now, in Nanoseconds. */
+    public long getAgeNanos()       { return System.nanoTime() - timestampNanos; }
+
+    /** Degrees (°) */
+    public double getYaw()   { return yaw; }
+    /** Degrees (°) */
+    public double getPitch() { return pitch; }
+    /** Degrees (°) */
+    public double getRoll()  { return roll; }
+
+    /** Volts */
+    public double getVoltage() { return voltage; }
+}
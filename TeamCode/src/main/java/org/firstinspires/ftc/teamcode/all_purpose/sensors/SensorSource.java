@@ -0,0 +1,28 @@
+package org.firstinspires.ftc.teamcode.all_purpose.sensors;
+
+/**
+ * Whatever {@link SensorSampler} reads its values from. On the robot this is
+ * {@link HardwareSensorSource}, off the robot (plain desktop JVM) it can be
+ * {@link SimulatedSensorSource}, so the sampler can be tested without a hub.<br><br>
+ *
+ * {@link #refresh()} is called once per sample, and is the ONLY method allowed
+ * to do slow hardware transactions. The getters must just return what it read.<br><br>
+ *
+ * Only the slow I2C sensors (IMU, battery voltage). The motor encoders are bulk-read by
+ * the OpMode thread (HardwareManager.refresh()), reading them here too would double the
+ * hub traffic and clear the other thread's bulk cache.
+ */
+public interface SensorSource {
+    /** Read every sensor once. Called from the sampler thread only. */
+    void refresh();
+
+    /** Degrees (°) */
+    double getYaw();
+    /** Degrees (°) */
+    double getPitch();
+    /** Degrees (°) */
+    double getRoll();
+
+    /** Volts */
+    double getVoltage();
+}
@@ -0,0 +1,56 @@
+package org.firstinspires.ftc.teamcode.all_purpose.sensors;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stand-in for the real hardware, with no SDK dependencies, so {@link SensorSampler}
+ * can be run on a plain desktop JVM to measure its latency and staleness
+ * (Benchmarks/.../SimulationHarness, {@code ./gradlew :Benchmarks:simulate}).<br><br>
+ *
+ * Whatever is set through the setters is what the next sample will see, and every
+ * {@link #refresh()} takes {@code readLatencyMs} like a real I2C transaction would.
+ */
+public class SimulatedSensorSource implements SensorSource {
+    private final long readLatencyNanos;
+
+    // Written by whoever is driving the simulation
+    private volatile double yaw;
+    private volatile double pitch;
+    private volatile double roll;
+    private volatile double voltage = 12.0;
+
+    // Latched by refresh(), read by the sampler
+    private double sampledYaw;
+    private double sampledPitch;
+    private double sampledRoll;
+    private double sampledVoltage;
+
+    /** @param readLatencyMs How long a single {@link #refresh()} should take */
+    public SimulatedSensorSource(double readLatencyMs) {
+        this.readLatencyNanos = (long) (readLatencyMs * TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    public void setYawPitchRoll(double yaw, double pitch, double roll) {
+        this.yaw = yaw;
+        this.pitch = pitch;
+        this.roll = roll;
+    }
+    public void setVoltage(double voltage) { this.voltage = voltage; }
+
+    @Override
+    public void refresh() {
+        // Busy-wait instead of sleeping, a real bus transaction also occupies the thread
+        long end = System.nanoTime() + readLatencyNanos;
+        while (System.nanoTime() < end);
+
+        sampledYaw = yaw;
+        sampledPitch = pitch;
+        sampledRoll = roll;
+        sampledVoltage = voltage;
+    }
+
+    @Override public double getYaw()     { return sampledYaw; }
+    @Override public double getPitch()   { return sampledPitch; }
+    @Override public double getRoll()    { return sampledRoll; }
+    @Override public double getVoltage() { return sampledVoltage; }
+}
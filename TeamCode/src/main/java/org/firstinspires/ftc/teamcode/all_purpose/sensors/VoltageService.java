@@ -0,0 +1,103 @@
+package org.firstinspires.ftc.teamcode.all_purpose.sensors;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * A smoothed battery voltage, and how much to scale motor powers by so they behave
+ * the same on a fresh or a tired battery.<br><br>
+ *
+ * A DC motor's speed is roughly proportional to the voltage it actually gets, which is
+ * (power * battery voltage). So commanding
+ *
+ *   power * (NOMINAL_VOLTAGE / battery voltage)
+ *
+ * gives the same speed as "power" would at exactly 12V. Which makes autonomous
+ * distances and turns repeatable across a match.<br><br>
+ *
+ * The voltage is read at a low fixed rate (by the {@link SensorSampler} when it's
+ * running, otherwise directly, at most every {@link #DIRECT_READ_INTERVAL_MS}), then
+ * low-pass filtered, so a motor starting up doesn't make every other power jump:
+ *
+ *   filtered += (1 - e^(-dt / TIME_CONSTANT)) * (reading - filtered)
+ */
+public class VoltageService {
+    public static final double NOMINAL_VOLTAGE = 12.0;
+    public static final long DIRECT_READ_INTERVAL_MS = 100;
+    public static final double DEFAULT_TIME_CONSTANT_MS = 500;
+
+    // Past these, the reading is more likely wrong than the battery (or the battery is dead anyway)
+    private static final double MIN_COMPENSATION = 0.75;
+    private static final double MAX_COMPENSATION = 1.4;
+
+    private final SensorSampler sampler;
+    private final DoubleSupplier directRead;
+    private final double timeConstantNanos;
+
+    private final SensorSnapshot latestSample = new SensorSnapshot();
+    private long lastReadingNanos;
+    private double filteredVoltage = Double.NaN;
+    private double compensation = 1;
+    private boolean enabled = true;
+
+    /**
+     * @param directRead Reads the voltage sensor, only used while the sampler isn't running
+     * @param timeConstantMs How slowly the filtered voltage follows the reading
+     */
+    public VoltageService(SensorSampler sampler, DoubleSupplier directRead, double timeConstantMs) {
+        this.sampler = sampler;
+        this.directRead = directRead;
+        this.timeConstantNanos = timeConstantMs * 1e6;
+    }
+
+    /** Call once per control cycle. Never allocates, only touches the hub every ~100ms. */
+    public void update() {
+        if (sampler.isRunning()) {
+            if (sampler.read(latestSample) && latestSample.getTimestampNanos() != lastReadingNanos)
+                addReading(latestSample.getTimestampNanos(), latestSample.getVoltage());
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (Double.isNaN(filteredVoltage) || now - lastReadingNanos >= DIRECT_READ_INTERVAL_MS * 1_000_000L)
+            addReading(now, directRead.getAsDouble());
+    }
+
+    private void addReading(long timestampNanos, double voltage) {
+        if (!(voltage > 0))
+            return; // Sensor not ready
+
+        if (Double.isNaN(filteredVoltage)) {
+            filteredVoltage = voltage;
+        } else {
+            double dt = timestampNanos - lastReadingNanos;
+            filteredVoltage += (1 - Math.exp(-dt / timeConstantNanos)) * (voltage - filteredVoltage);
+        }
+
+        lastReadingNanos = timestampNanos;
+        compensation = Math.max(MIN_COMPENSATION, Math.min(MAX_COMPENSATION, NOMINAL_VOLTAGE / filteredVoltage));
+    }
+
+    /** Volts, NaN until the first reading. */
+    public double getVoltage() {
+        return filteredVoltage;
+    }
+
+    /** What to multiply powers by, 1 when disabled or before the first reading. */
+    public double getCompensation() {
+        return enabled ? compensation : 1;
+    }
+
+    /** @return The power that behaves like the given one would at 12V, within [-1, 1] */
+    public double compensate(double power) {
+        return Math.max(-1, Math.min(1, power * getCompensation()));
+    }
+
+    /** E.g. to compare against uncompensated runs. On by default. */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
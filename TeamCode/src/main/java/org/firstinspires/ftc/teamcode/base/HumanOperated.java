@@ -8,8 +8,16 @@ import com.qualcomm.robotcore.util.ElapsedTime;
 
 import android.util.Range;
 
+import org.firstinspires.ftc.teamcode.all_purpose.GamepadEvents;
 import org.firstinspires.ftc.teamcode.all_purpose.HardwareManager;
-import org.firstinspires.ftc.teamcode.all_purpose.Misc;
+import org.firstinspires.ftc.teamcode.all_purpose.LoopProfiler;
+import org.firstinspires.ftc.teamcode.all_purpose.OutputStage;
+import org.firstinspires.ftc.teamcode.all_purpose.RobotConstants;
+import org.firstinspires.ftc.teamcode.all_purpose.control.AxisShaper;
+import org.firstinspires.ftc.teamcode.all_purpose.control.ElbowArmController;
+import org.firstinspires.ftc.teamcode.all_purpose.control.MecanumMixer;
+import org.firstinspires.ftc.teamcode.all_purpose.hardware.DriveMotors;
+import org.firstinspires.ftc.teamcode.all_purpose.hardware.ElbowArm;
 
 /**
  * Base class for all human-operated scripts, a.k.a TeleOp.
@@ -18,11 +26,12 @@ import org.firstinspires.ftc.teamcode.all_purpose.Misc;
  * which ensures that the values obeys the UPPER and LOWER limits,
  * before sending them to each hardware binding classes.
  *
- * (USER_INPUT) -> (Class extends HumanOperated) -> (Base Class HumanOperated) -> (Hardware Manager)
- *      |                   |                             |                              |
- *     \/                   |                             |                              `-> Magic Class that converts Java value to actual
- *   GamePad1 or            |                             |                                  voltage to be used by DcMotors and Servos.
- *   GamePad2               |                             |
+ * (USER_INPUT) -> (Class extends HumanOperated) -> (Base Class HumanOperated) -> (Output Stage) -> (Hardware Manager)
+ *      |                   |                             |                            |                  |
+ *     \/                   |                             |                            |                  `-> Magic Class that converts Java value to actual
+ *   GamePad1 or            |                             |                            |                      voltage to be used by DcMotors and Servos.
+ *   GamePad2               |                             |                            `> Only sends the values that changed since
+ *                          |                             |                                the last loop, once per loop.
  *                          |                             `> Ensures the desired power setting is within min and max
  *                          |                                 before sending it to the actual hardware binding class.
  *                         \/
@@ -33,6 +42,8 @@ import org.firstinspires.ftc.teamcode.all_purpose.Misc;
 
 public abstract class HumanOperated extends OpMode {
     protected HardwareManager hardwareManager;
+    protected OutputStage outputStage;
+    protected LoopProfiler profiler;
 
     protected double frontLeftWheelPower;
     protected double frontRightWheelPower;
@@ -56,6 +67,7 @@ public abstract class HumanOperated extends OpMode {
     protected static final Range<Double> ARM_SERVO_POWER_RANGE = new Range<>(-0.8, 0.8);
     protected static final Range<Double> LIFT_POWER_RANGE      = new Range<>(-1.0, 0.5);
     protected static final double LAUNCHER_BASE_POSITION = 0.5;
+    protected static final long HARDWARE_INIT_TIMEOUT_MS = 3000;
 
     //------------------------------------------------------------------------------------------------
     // Defaults
@@ -64,34 +76,108 @@ public abstract class HumanOperated extends OpMode {
     protected static final double LIFT_POWER_DELTA = 1.0;
     protected static final double ARM_MOTOR_DELTA = 1.0;
     protected static final double ARM_SERVO_DELTA = 1.0;
+    protected static final MecanumMixer.Normalization MIXER_NORMALIZATION = MecanumMixer.Normalization.PRESERVE_RATIO;
 
+    private final double[] mixedWheelPowers = new double[4];
+
+    /** Button edges (pressed, released, held, double tap), updated at the start of every loop() */
+    protected final GamepadEvents gamepad1Events = new GamepadEvents().setTriggerThreshold(GAME_PAD_TRIGGER_THRESHOLD);
+    protected final GamepadEvents gamepad2Events = new GamepadEvents().setTriggerThreshold(GAME_PAD_TRIGGER_THRESHOLD);
+
+    /** Robot-centric, or field-centric if {@link #isFieldCentric()} */
     protected void useDefaultMovementControls() {
-        double strafe = Misc.easeWithCubic(gamepad1.left_stick_x);
-        double rotate = Misc.easeWithCubic(gamepad1.right_stick_x);
-        double drive  = Misc.easeWithCubic(
+        double strafe = strafeShaper.update(gamepad1.left_stick_x, loopSeconds);
+        double rotate = rotateShaper.update(gamepad1.right_stick_x, loopSeconds);
+        double drive  = driveShaper.update(
                 gamepad1.left_stick_y != 0
                         ? -gamepad1.left_stick_y
-                        : -gamepad1.right_stick_y
+                        : -gamepad1.right_stick_y,
+                loopSeconds
         );
 
-        double heading = Math.atan2(drive, strafe);
-        double power = Math.hypot(strafe, drive);
+        if (isFieldCentric()) {
+            if (gamepad1Events.wasPressed(GamepadEvents.BACK))
+                zeroFieldHeading();
+
+            // Stick (field frame) -> robot frame, x forward, y left (strafe is right +)
+            double heading = getFieldHeadingRadians();
+            double cos = Math.cos(heading);
+            double sin = Math.sin(heading);
+            double robotX =  drive * cos - strafe * sin;
+            double robotY = -drive * sin - strafe * cos;
+            drive = robotX;
+            strafe = -robotY;
+        }
+        profiler.mark(inputPhase);
+
+        MecanumMixer.mix(drive, strafe, rotate, MIXER_NORMALIZATION, mixedWheelPowers);
+        frontLeftWheelPower  = mixedWheelPowers[DriveMotors.FRONT_LEFT];
+        frontRightWheelPower = mixedWheelPowers[DriveMotors.FRONT_RIGHT];
+        backLeftWheelPower   = mixedWheelPowers[DriveMotors.BACK_LEFT];
+        backRightWheelPower  = mixedWheelPowers[DriveMotors.BACK_RIGHT];
+        profiler.mark(mixingPhase);
+    }
 
-        double sin = Math.sin(heading - Math.PI / 4);
-        double cos = Math.cos(heading - Math.PI / 4);
-        double max = Math.max(Math.abs(sin), Math.abs(cos));
+    //------------------------------------------------------------------------------------------------
+    // Input Shaping
+    //------------------------------------------------------------------------------------------------
+    /*
+     * Every stick axis goes through an AxisShaper: deadband, cubic-ish curve (lookup table),
+     * then a slew limit on the real loop time. The drivetrain ramps up over ~0.3s, so full
+     * stick doesn't spin the wheels or tip the robot, and stops about twice as fast.
+     * Control schemes tune these (or shape their own axes) in configureInputShaping().
+     */
+    protected final AxisShaper driveShaper  = new AxisShaper().setDeadband(0.05).setExpo(0.8).setSlewRate(3.5, 7);
+    protected final AxisShaper strafeShaper = new AxisShaper().setDeadband(0.05).setExpo(0.8).setSlewRate(3.0, 6);
+    protected final AxisShaper rotateShaper = new AxisShaper().setDeadband(0.05).setExpo(1.0).setSlewRate(5.0, 10);
+
+    /** Seconds since the previous loop(), for the slew limits */
+    protected double loopSeconds;
+    private long lastLoopNanos;
+
+    /** Called once from init(), adjust the shapers (or create more) here */
+    protected void configureInputShaping() {}
+
+    /** Called from start(), so nothing ramps from a stale value. Reset any shapers you added too (call super). */
+    protected void resetShapers() {
+        driveShaper.reset();
+        strafeShaper.reset();
+        rotateShaper.reset();
+    }
 
-        frontLeftWheelPower  = power * cos / max + rotate;
-        frontRightWheelPower = power * sin / max - rotate;
-        backLeftWheelPower   = power * sin / max + rotate;
-        backRightWheelPower  = power * cos / max - rotate;
+    //------------------------------------------------------------------------------------------------
+    // Field-Centric Drive
+    //------------------------------------------------------------------------------------------------
+    /*
+     * Field-centric: pushing the stick away from the driver drives the robot away from the
+     * driver, whichever way the robot is facing. The stick vector is rotated by the robot's
+     * heading, which comes from the HeadingService (the IMU sampled on the background
+     * SensorSampler, extrapolated with the encoders), so the loop never waits on an IMU read.
+     *
+     * "Away from the driver" is wherever the robot faced at init, or when the driver last
+     * pressed BACK. Re-zeroing only remembers the current heading as the new forward,
+     * it doesn't reset the IMU, so it doesn't stall the loop either.
+     */
+    private double fieldHeadingZeroRadians;
+
+    /** Override to return true for field-centric movement controls. Starts the SensorSampler. */
+    protected boolean isFieldCentric() {
+        return false;
+    }
 
-        if ((power + Math.abs(rotate)) > 1) {
-            frontLeftWheelPower  /= power + rotate;
-            frontRightWheelPower /= power + rotate;
-            backLeftWheelPower   /= power + rotate;
-            backRightWheelPower  /= power + rotate;
-        }
+    /** The robot's current heading becomes "forward". Non-blocking. */
+    protected void zeroFieldHeading() {
+        fieldHeadingZeroRadians = hardwareManager.headingService.getHeadingRadians();
+    }
+
+    /**
+     * Counter-clockwise positive, from the zero. As of the last refresh(), no IMU read.
+     * 0 (robot-centric) until the first IMU sample arrives.
+     */
+    protected double getFieldHeadingRadians() {
+        if (!hardwareManager.sensorSampler.isRunning() || !hardwareManager.headingService.hasHeading())
+            return 0;
+        return hardwareManager.headingService.getHeadingRadians() - fieldHeadingZeroRadians;
     }
 
     protected void useDefaultArmControls() {
@@ -122,10 +208,10 @@ public abstract class HumanOperated extends OpMode {
         liftMotorPower = 0;
 
         if (gamepad1.right_bumper) {
-            hardwareManager.liftMotor.setDirection(DcMotorSimple.Direction.FORWARD);
+            outputStage.setDirection(hardwareManager.liftMotor, DcMotorSimple.Direction.FORWARD);
             liftMotorPower = LIFT_POWER_DELTA;
         } else if (gamepad1.left_bumper){
-            hardwareManager.liftMotor.setDirection(DcMotorSimple.Direction.REVERSE);
+            outputStage.setDirection(hardwareManager.liftMotor, DcMotorSimple.Direction.REVERSE);
             liftMotorPower = LIFT_POWER_DELTA;
         }
     }
@@ -137,71 +223,101 @@ public abstract class HumanOperated extends OpMode {
     //------------------------------------------------------------------------------------------------
     // Simple Arm Controls
     //------------------------------------------------------------------------------------------------
-    protected final double COUNTS_PER_ELBOW_REVOLUTION = 1440;
-    protected final double ARM_GEAR_RATIO = 2;
-    protected final double COUNTS_PER_ANGLE = (COUNTS_PER_ELBOW_REVOLUTION * ARM_GEAR_RATIO) / 360.0; // DEGREES
-    protected double ELBOW_MOTOR_POWER = 0.3;
-    protected boolean isUp = false; // If the arm has been raised up
-    protected void moveElbowMotors(double endPositionAngle) {
-        /*
-        * This is a copy of the moveElbowMotors() from selfDriving with a very very
-        * experimental way of changing the direction of the motor
-        * */
-        if(endPositionAngle >= 0) {
-            hardwareManager.elbowArmMotor.setDirection(DcMotorSimple.Direction.FORWARD);
-            ELBOW_MOTOR_POWER = 0.2;
-        } else {
-            hardwareManager.elbowArmMotor.setDirection(DcMotorSimple.Direction.REVERSE);
-            ELBOW_MOTOR_POWER = 0.5;
-        }
+    protected final double COUNTS_PER_ELBOW_REVOLUTION = RobotConstants.COUNTS_PER_ELBOW_REVOLUTION;
+    protected final double ARM_GEAR_RATIO = RobotConstants.ARM_GEAR_RATIO;
+    protected final double COUNTS_PER_ANGLE = RobotConstants.COUNTS_PER_ANGLE; // DEGREES
+    /** Where the TeleOp arm is in its raise / lower cycle, advanced every loop() */
+    protected enum ArmState {
+        STOWED,   // Down, on the stop
+        RAISING,  // Following the profile up
+        RAISED,   // Held up there
+        LOWERING  // Following the profile down
+    }
+
+    /** Degrees above horizontal, X toggles between this and the rest angle */
+    protected static final double ARM_RAISED_ANGLE = RobotConstants.ELBOW_REST_ANGLE_DEGREES + 80;
+    /** Counts as arrived this long after the profile, even if it's not within tolerance (blocked, low battery..) */
+    protected static final double ARM_SETTLE_TIMEOUT_SECONDS = 0.5;
 
-        double total_counts = COUNTS_PER_ANGLE * endPositionAngle; // Angle of movement desired
-        double motor_position = hardwareManager.elbowArmMotor.getCurrentPosition(); // Elbow's current position
-        double target_angle = (endPositionAngle >= 0)
-                ? (motor_position + total_counts)
-                : (motor_position - total_counts); // The desired end position of the motors angle
+    protected ArmState armState = ArmState.STOWED;
+    private long armSettleStartNanos;
 
-        hardwareManager.elbowArmMotor.setPower(ELBOW_MOTOR_POWER);
-        while (hardwareManager.elbowArmMotor.getCurrentPosition() <= target_angle) {
-            //idle()
+    /** Holds the arm wherever it was last sent, updated every loop() */
+    protected ElbowArmController armController;
+
+    /** The elbow as the controller sees it, written through the OutputStage like everything else */
+    private final ElbowArm elbowArm = new ElbowArm() {
+        @Override
+        public void setPower(double power) {
+            outputStage.setDirection(hardwareManager.elbowArmMotor, DcMotorSimple.Direction.FORWARD); // Older code flips it
+            outputStage.setPower(hardwareManager.elbowArmMotor, RobotConstants.ELBOW_UP_SIGN * power); // Voltage compensated by the power scale
         }
 
-        hardwareManager.elbowArmMotor.setPower(0);
+        @Override public int getCounts()      { return RobotConstants.ELBOW_UP_SIGN * hardwareManager.getElbowArmCounts(); }
+        @Override public double getVelocity() { return RobotConstants.ELBOW_UP_SIGN * hardwareManager.getElbowArmVelocity(); }
+    };
+
+    /**
+     * Only requests the move, {@link #updateArmState()} follows it through, one step per loop():
+     * <pre>
+     *   STOWED --X--▶ RAISING --arrived--▶ RAISED
+     *     ▲            X |  ▲ X              |
+     *     |              ▼  |                |
+     *     `--arrived-- LOWERING ◀-----X------'
+     *
+     * X mid-move turns the arm around from where it was planned to be, smoothly.
+     * </pre>
+     */
+    protected void requestArmRaised(boolean raised) {
+        armController.setTargetAngle(raised ? ARM_RAISED_ANGLE : RobotConstants.ELBOW_REST_ANGLE_DEGREES);
+        armState = raised ? ArmState.RAISING : ArmState.LOWERING;
+        armSettleStartNanos = 0;
+    }
+
+    /** Moving states become resting ones once the arm gets there. Never waits. */
+    protected void updateArmState() {
+        if (armState != ArmState.RAISING && armState != ArmState.LOWERING)
+            return;
+        if (armController.isMoving())
+            return;
+
+        long now = System.nanoTime();
+        if (armSettleStartNanos == 0)
+            armSettleStartNanos = now;
+
+        if (armController.isAtTarget() || (now - armSettleStartNanos) * 1e-9 >= ARM_SETTLE_TIMEOUT_SECONDS)
+            armState = armState == ArmState.RAISING ? ArmState.RAISED : ArmState.STOWED;
     }
+
+    /** Raising or raised */
+    protected boolean isArmUp() {
+        return armState == ArmState.RAISING || armState == ArmState.RAISED;
+    }
+
     protected void useSimpleArmControls(){
-        if (!hardwareManager.elbowArmMotor.isBusy()) {
-            if(gamepad1.x){
-                if(!isUp){
-                    moveElbowMotors(-80);
-                    isUp = true;
-                    // if x is pressed then arm moves down by 90 degrees
-                }else{
-                    moveElbowMotors(80);
-                    isUp = false;
-                    // if y is pressed then arm moves up by 45 degrees
-                }
-            }
-        }
-        //--- Claw controls ---
-        if(gamepad1.a){ // if a is pressed..
+        // Once per press, the arm takes a while to get there and the button stays down
+        if (gamepad1Events.wasPressed(GamepadEvents.X))
+            requestArmRaised(!isArmUp());
+
+        //--- Claw controls, only on the edges ---
+        if (gamepad1Events.wasPressed(GamepadEvents.A)) // a pressed..
             moveClawServos(true); // open left claw servo
-        } else { // if a is not pressed..
-            hardwareManager.clawServoLeft.setPosition(0); // go back to closed position
-        }
-        if(gamepad1.b){ // if b is pressed..
+        else if (gamepad1Events.wasReleased(GamepadEvents.A)) // a let go..
+            outputStage.setPosition(hardwareManager.clawServoLeft, 0); // go back to closed position
+
+        if (gamepad1Events.wasPressed(GamepadEvents.B)) // b pressed..
             moveClawServos(false); // open right claw servo
-        } else { // if b is not pressed
-            hardwareManager.clawServoRight.setPosition(0); // go back to closed position
-        }
+        else if (gamepad1Events.wasReleased(GamepadEvents.B)) // b let go
+            outputStage.setPosition(hardwareManager.clawServoRight, 0); // go back to closed position
     }
 
     //---- Wrist Controls ----
 
     protected void moveClawServos(boolean isServoLeft){
         if(isServoLeft){
-            hardwareManager.clawServoLeft.setPosition(0.5);
+            outputStage.setPosition(hardwareManager.clawServoLeft, 0.5);
         } else {
-            hardwareManager.clawServoRight.setPosition(0.5);
+            outputStage.setPosition(hardwareManager.clawServoRight, 0.5);
         }
     }
 
@@ -227,16 +343,45 @@ public abstract class HumanOperated extends OpMode {
 
     protected abstract void processUserInput();
 
+    // Profiler phases
+    private int bulkReadPhase;
+    private int inputPhase;
+    private int mixingPhase;
+    private int writePhase;
+    private int telemetryPhase;
+
     @Override
     public void loop() {
+        profiler.beginCycle();
+        long now = System.nanoTime();
+        loopSeconds = lastLoopNanos != 0 ? (now - lastLoopNanos) * 1e-9 : 0;
+        lastLoopNanos = now;
+
+        hardwareManager.refresh();
+        profiler.mark(bulkReadPhase);
+
+        gamepad1Events.update(gamepad1);
+        gamepad2Events.update(gamepad2);
         processUserInput();
+        profiler.mark(inputPhase);
 
-        hardwareManager.getFrontLeftWheel().setPower(WHEELS_POWER_RANGE.clamp(frontLeftWheelPower));
-        hardwareManager.getFrontRightWheel().setPower(WHEELS_POWER_RANGE.clamp(frontRightWheelPower));
-        hardwareManager.getBackLeftWheel().setPower(WHEELS_POWER_RANGE.clamp(backLeftWheelPower));
-        hardwareManager.getBackRightWheel().setPower(WHEELS_POWER_RANGE.clamp(backRightWheelPower));
+        outputStage.setPowerScale(hardwareManager.voltageService.getCompensation());
+        outputStage.setPower(hardwareManager.getFrontLeftWheel(), WHEELS_POWER_RANGE.clamp(frontLeftWheelPower));
+        outputStage.setPower(hardwareManager.getFrontRightWheel(), WHEELS_POWER_RANGE.clamp(frontRightWheelPower));
+        outputStage.setPower(hardwareManager.getBackLeftWheel(), WHEELS_POWER_RANGE.clamp(backLeftWheelPower));
+        outputStage.setPower(hardwareManager.getBackRightWheel(), WHEELS_POWER_RANGE.clamp(backRightWheelPower));
 
-        hardwareManager.liftMotor.setPower(LIFT_POWER_RANGE.clamp(liftMotorPower));
+        outputStage.setPower(hardwareManager.liftMotor, LIFT_POWER_RANGE.clamp(liftMotorPower));
+        armController.update();
+        updateArmState();
+        outputStage.flush();
+        profiler.mark(writePhase);
+
+        telemetry.addData("Arm", armState);
+
+        profiler.report(telemetry);
+        profiler.mark(telemetryPhase);
+        profiler.endCycle();
 
         //telemetry.addData("POSITION: ", );
         //telemetry.update();
@@ -251,12 +396,48 @@ public abstract class HumanOperated extends OpMode {
     @Override
     public void init() {
         hardwareManager = new HardwareManager(hardwareMap);
+        outputStage = new OutputStage();
+        armController = new ElbowArmController(elbowArm);
+
+        profiler = new LoopProfiler("TeleOp");
+        bulkReadPhase  = profiler.addPhase("Bulk Read");
+        inputPhase     = profiler.addPhase("Input");
+        mixingPhase    = profiler.addPhase("Mixing");
+        writePhase     = profiler.addPhase("Writes");
+        telemetryPhase = profiler.addPhase("Telemetry");
+        configureInputShaping();
+    }
+
+    @Override
+    public void init_loop() {
+        // The IMU initializes in the background, show how far along init is
+        telemetry.addLine(hardwareManager.isReady() ? "Ready." : "Initializing..");
+        hardwareManager.initReport.addReportTo(telemetry);
     }
 
     @Override
     public void start() {
+        if (!hardwareManager.awaitReady(HARDWARE_INIT_TIMEOUT_MS))
+            telemetry.addLine("WARNING: IMU not initialized, heading unavailable");
+        hardwareManager.initReport.finish();
+
+        // Not if the IMU failed, that would wait for it all over again
+        if (isFieldCentric() && hardwareManager.isReady())
+            hardwareManager.startSensorSampler();
+
         //hardwareManager.droneLauncherBase.setPosition(LAUNCHER_BASE_POSITION);
-        hardwareManager.clawServoLeft.setPosition(0);
-        hardwareManager.clawServoRight.setPosition(0);
+        outputStage.setPosition(hardwareManager.clawServoLeft, 0);
+        outputStage.setPosition(hardwareManager.clawServoRight, 0);
+        outputStage.flush();
+
+        resetShapers();
+        lastLoopNanos = 0;
+        gamepad1Events.reset();
+        gamepad2Events.reset();
+    }
+
+    @Override
+    public void stop() {
+        hardwareManager.sensorSampler.stop(); // In case a subclass started it
     }
 }
@@ -1,12 +1,31 @@
 package org.firstinspires.ftc.teamcode.base;
 
-import android.util.Range;
-
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
-import com.qualcomm.robotcore.hardware.DcMotorSimple;
 import com.qualcomm.robotcore.util.ElapsedTime;
 
 import org.firstinspires.ftc.teamcode.all_purpose.HardwareManager;
+import org.firstinspires.ftc.teamcode.all_purpose.InitReport;
+import org.firstinspires.ftc.teamcode.all_purpose.LoopProfiler;
+import org.firstinspires.ftc.teamcode.all_purpose.RobotConstants;
+import org.firstinspires.ftc.teamcode.all_purpose.commands.Command;
+import org.firstinspires.ftc.teamcode.all_purpose.commands.CommandScheduler;
+import org.firstinspires.ftc.teamcode.all_purpose.commands.DriveToCommand;
+import org.firstinspires.ftc.teamcode.all_purpose.commands.ElbowArmCommand;
+import org.firstinspires.ftc.teamcode.all_purpose.commands.PathFollowCommand;
+import org.firstinspires.ftc.teamcode.all_purpose.commands.ProfiledDriveCommand;
+import org.firstinspires.ftc.teamcode.all_purpose.commands.ProfiledTurnCommand;
+import org.firstinspires.ftc.teamcode.all_purpose.control.ElbowArmController;
+import org.firstinspires.ftc.teamcode.all_purpose.hardware.Claw;
+import org.firstinspires.ftc.teamcode.all_purpose.hardware.HubRobotHardware;
+import org.firstinspires.ftc.teamcode.all_purpose.hardware.RobotHardware;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.MotionProfile;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.SplinePath;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.TrajectoryCache;
+import org.firstinspires.ftc.teamcode.all_purpose.routines.CompiledRoutine;
+import org.firstinspires.ftc.teamcode.all_purpose.routines.Routine;
+import org.firstinspires.ftc.teamcode.all_purpose.routines.RoutineCompiler;
+
+import static org.firstinspires.ftc.teamcode.all_purpose.commands.Commands.*;
 
 /**
  * Base class for all Self-Driving scripts, a.k.a Autonomous.
@@ -14,141 +33,281 @@ import org.firstinspires.ftc.teamcode.all_purpose.HardwareManager;
  */
 public abstract class SelfDriving extends LinearOpMode {
     protected HardwareManager hardwareManager;
+    /** What move() and rotate() drive, can be swapped for a SimulatedRobot */
+    protected RobotHardware robot;
+    protected LoopProfiler profiler;
 
     //------------------------------------------------------------------------------------------------
     // Config
     //------------------------------------------------------------------------------------------------
-    protected final Range<Double> MOVEMENT_POWER_RANGE = new Range<>(0.4, 1.0);
-    protected final double TURN_POWER = 0.3;
-
     protected final long CLAW_OPEN_MS = 500;
     protected final long PAUSE_MS = 250;
+    protected final long HARDWARE_INIT_TIMEOUT_MS = 3000;
 
     //------------------------------------------------------------------------------------------------
     // Movement
     //------------------------------------------------------------------------------------------------
-    protected final double COUNTS_PER_REVOLUTION = 1010;
-    protected final double TICKS_PER_METER = COUNTS_PER_REVOLUTION / (Math.PI * 0.098);
+    protected final double COUNTS_PER_REVOLUTION = RobotConstants.WHEEL_COUNTS_PER_REVOLUTION;
+    protected final double TICKS_PER_METER = RobotConstants.TICKS_PER_METER;
     protected final double MOVEMENT_MODIFIER = 1 / TICKS_PER_METER;
-    protected final double TURNING_SLACK = 0; // Turning Error Compensation
 
+    /** Blocking, see {@link #driveCommand(double)} */
     protected void move(double metersDistance) {
-        if (!opModeIsActive())
-            return;
+        run(sequence(driveCommand(metersDistance), waitMs(PAUSE_MS)));
+    }
 
-        hardwareManager.resetWheelEncoders();
+    /** Blocking, see {@link #turnCommand(double)} */
+    protected void rotate(double degreeAngle) {
+        run(sequence(turnCommand(degreeAngle), waitMs(PAUSE_MS)));
+    }
 
-        double totalCounts = TICKS_PER_METER * metersDistance;
-        double middleCount = totalCounts * 0.5 + MOVEMENT_POWER_RANGE.getLower();
-        // + minimum power so it doesn't start at 0
+    /** Blocking, see {@link #driveToCommand(double, double, double)} */
+    protected void driveTo(double x, double y, double headingDegrees) {
+        run(sequence(driveToCommand(x, y, headingDegrees), waitMs(PAUSE_MS)));
+    }
 
-        while (opModeIsActive() && (double) hardwareManager.getAverageWheelCounts() <= totalCounts) {
-            // f(x) = -|x-(d1 - d2)/2| + (d1 + d2)/2 -- "upside-down absolute value
-            // graph with the vertex between d1 and d2". Increase power based on this,
-            // where x is distance traveled, d1 = 0, d2 total distance.. obviously cap
-            // at max power (~1)..
+    /**
+     * Straight forward (negative = backward), following a time-optimal S-curve motion
+     * profile, computed (or loaded from the {@link #trajectoryCache}) right here. Holds the heading
+     * it starts with. So build routines during init, see {@link #createRoutine()}.
+     * Doesn't pause at the end.
+     */
+    protected Command driveCommand(double metersDistance) {
+        MotionProfile profile = trajectoryCache.sCurve(
+                metersDistance,
+                RobotConstants.MAX_DRIVE_VELOCITY,
+                RobotConstants.MAX_DRIVE_ACCELERATION,
+                RobotConstants.MAX_DRIVE_JERK);
+        return new ProfiledDriveCommand(robot.drive(), robot.sensors(), profile);
+    }
 
-            double wheelCounts = hardwareManager.getAverageWheelCounts();
-            double power = -MOVEMENT_MODIFIER * Math.abs(wheelCounts - middleCount) + middleCount * MOVEMENT_MODIFIER;
-            hardwareManager.doForAllWheels(wheel ->
-                    wheel.setPower(MOVEMENT_POWER_RANGE.clamp(power)));
+    /**
+     * One continuous move through the waypoints, turning on the way, see {@link PathFollowCommand}.
+     * The path is computed (or loaded) right here, so build routines during init. Doesn't pause at the end.
+     * @param endHeadingDegrees Field heading to end at, counter-clockwise positive, 0 = facing
+     *                          where the robot started facing
+     * @param coordinates x0, y0, x1, y1, ... meters from where the robot started,
+     *                    x forward, y left. Usually starting where the robot will be.
+     */
+    protected Command followCommand(double endHeadingDegrees, double... coordinates) {
+        SplinePath path = trajectoryCache.path(
+                RobotConstants.MAX_DRIVE_VELOCITY,
+                RobotConstants.MAX_DRIVE_ACCELERATION,
+                RobotConstants.MAX_CENTRIPETAL_ACCELERATION,
+                coordinates);
+        return new PathFollowCommand(robot.drive(), robot.odometry(), path, endHeadingDegrees);
+    }
 
-//            idle();
-        }
+    /**
+     * Straight to a field pose, translating and turning at once, see {@link DriveToCommand}.
+     * Diagonals instead of drive, turn, drive. Planned from wherever the robot is when it
+     * starts. Doesn't pause at the end.
+     * @param x Meters from where the robot started, forward
+     * @param y Meters from where the robot started, left
+     * @param headingDegrees Field heading to end at, counter-clockwise positive
+     */
+    protected Command driveToCommand(double x, double y, double headingDegrees) {
+        return DriveToCommand.absolute(robot.drive(), robot.odometry(), x, y, headingDegrees);
+    }
 
-        hardwareManager.doForAllWheels(wheel -> wheel.setPower(0));
-        sleep(PAUSE_MS);
+    /**
+     * In place, by the angle from the current heading, positive = clockwise. Follows a
+     * motion profile, see {@link ProfiledTurnCommand}. Doesn't pause at the end.
+     */
+    protected Command turnCommand(double degreeAngle) {
+        return ProfiledTurnCommand.relative(robot.drive(), robot.odometry(), -degreeAngle);
     }
 
-    protected void rotate(double degreeAngle) {
+    /**
+     * In place, to a field heading, the short way around. Doesn't pause at the end.
+     * @param headingDegrees Counter-clockwise positive, 0 = facing where the robot started facing
+     */
+    protected Command turnToCommand(double headingDegrees) {
+        return ProfiledTurnCommand.absolute(robot.drive(), robot.odometry(), headingDegrees);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Simple Arm Autonomous
+    //------------------------------------------------------------------------------------------------
+    protected final double COUNTS_PER_ELBOW_REVOLUTION = RobotConstants.COUNTS_PER_ELBOW_REVOLUTION;
+    protected final double ARM_GEAR_RATIO = RobotConstants.ARM_GEAR_RATIO;
+    protected final double COUNTS_PER_ANGLE = RobotConstants.COUNTS_PER_ANGLE; // DEGREES
+    protected final long CLAW_HOLD_OPEN_MS = RobotConstants.CLAW_HOLD_OPEN_MS;
+
+    /** Holds the arm wherever it was last sent, updated every cycle of {@link #run(Command)} */
+    protected ElbowArmController armController;
+
+    /** Blocking, see {@link #elbowCommand(double)} */
+    protected void moveElbowMotor(double angle) {
+        run(elbowCommand(angle));
+    }
+
+    /** Moves the arm by the angle from its current target, positive = up. Keeps holding it there after. */
+    protected Command elbowCommand(double angle) {
+        return ElbowArmCommand.relative(armController, angle);
+    }
+
+    /** Moves the arm to the angle above horizontal. Keeps holding it there after. */
+    protected Command elbowToCommand(double angle) {
+        return ElbowArmCommand.absolute(armController, angle);
+    }
+
+    //---- Wrist Controls ----
+    /** Blocking, see {@link #openClawCommand(boolean)} */
+    protected void openClawServos(boolean isServoLeft) {
+        run(openClawCommand(isServoLeft));
+    }
+
+    /** Opens one side of the claw, then closes it again */
+    protected Command openClawCommand(boolean isServoLeft) {
+        Claw claw = robot.claw();
+        return isServoLeft
+                ? sequence(instant(() -> claw.setLeftPosition(Claw.OPEN)), waitMs(CLAW_HOLD_OPEN_MS), instant(() -> claw.setLeftPosition(Claw.CLOSED)))
+                : sequence(instant(() -> claw.setRightPosition(Claw.OPEN)), waitMs(CLAW_HOLD_OPEN_MS), instant(() -> claw.setRightPosition(Claw.CLOSED)));
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // Commands
+    //------------------------------------------------------------------------------------------------
+    /*
+     * Everything the robot does is a Command, and they all run from the single loop in
+     * run(). One bulk read per cycle, then every running command gets a quick step.
+     * So the drivetrain and the arm can move at the same time, e.g.
+     *
+     *   run(sequence(
+     *       parallel(driveCommand(1.4), elbowCommand(80)),
+     *       turnCommand(-90)
+     *   ));
+     *
+     * and nothing busy-waits on its own.
+     */
+    protected final CommandScheduler scheduler = new CommandScheduler();
+
+    /** Runs the command (and anything else scheduled) until it's done, or the OpMode stops. */
+    protected void run(Command command) {
         if (!opModeIsActive())
             return;
 
-        hardwareManager.imu.resetYaw();
-        double initialAngle = hardwareManager.getCurrentDegreeHeading();
-
-        double motorOffset = degreeAngle > 0 ? 1 : -1;
-        double leftPower = TURN_POWER * motorOffset;
-        double rightPower = TURN_POWER * -motorOffset;
+        scheduler.schedule(command);
+        while (opModeIsActive() && !scheduler.isIdle()) {
+            profiler.beginCycle();
+            robot.refresh(); // Encoders, and the heading (no IMU read)
+            profiler.mark(bulkReadPhase);
 
-        hardwareManager.getFrontLeftWheel().setPower(leftPower);
-        hardwareManager.getFrontRightWheel().setPower(rightPower);
-        hardwareManager.getBackLeftWheel().setPower(leftPower);
-        hardwareManager.getBackRightWheel().setPower(rightPower);
+            scheduler.run();
+            armController.update();
+            profiler.mark(commandsPhase);
+            profiler.endCycle();
+            reportProfiler();
+            telemetry.update(); // Once per cycle, the SDK throttles the actual sends
 
-        while (opModeIsActive() && hasReachedDesiredAngle(initialAngle, degreeAngle)) {
-            // idle();
+            idle(); // Let the vision thread have the core
         }
 
-        hardwareManager.doForAllWheels(wheel -> wheel.setPower(0));
-        sleep(PAUSE_MS);
+        scheduler.cancelAll(); // Stopped early, stop the motors too
     }
 
-    protected boolean hasReachedDesiredAngle(double initialAngle, double turnAngle) {
-        double targetAngle = initialAngle - turnAngle;
-        double currentAngle = hardwareManager.getCurrentDegreeHeading();
+    //------------------------------------------------------------------------------------------------
+    // Routines
+    //------------------------------------------------------------------------------------------------
+    /** Profiles and paths generated by earlier inits, under /sdcard/FIRST/trajectories */
+    protected TrajectoryCache trajectoryCache;
 
-        return turnAngle > 0
-                ? currentAngle >= targetAngle - TURNING_SLACK
-                : currentAngle <= targetAngle + TURNING_SLACK;
+    /** The plan of the routine from {@link #compile(Routine)}, if any */
+    protected CompiledRoutine compiledRoutine;
+
+    /**
+     * Checks and plans a declarative {@link Routine}, everything computed right here.
+     * For returning from {@link #createRoutine()}, the plan then shows during init.
+     */
+    protected Command compile(Routine routine) {
+        compiledRoutine = RoutineCompiler.compile(routine, robot, armController, trajectoryCache);
+        return compiledRoutine;
     }
 
     //------------------------------------------------------------------------------------------------
-    // Simple Arm Autonomous
+    // Profiling
     //------------------------------------------------------------------------------------------------
-    protected final double COUNTS_PER_ELBOW_REVOLUTION = 1440;
-    protected final double ARM_GEAR_RATIO = 2;
-    protected final double COUNTS_PER_ANGLE = (COUNTS_PER_ELBOW_REVOLUTION * ARM_GEAR_RATIO) / 360.0; // DEGREES
-    protected final double ELBOW_MOTOR_POWER = 0.5;
-    protected void moveElbowMotor(double endPositionAngle) {
-        /*
-         * This is a copy of the moveElbowMotors() from selfDriving with a very very
-         * experimental way of changing the direction of the motor
-         * */
-        if(endPositionAngle >= 0) {
-            hardwareManager.elbowArmMotor.setDirection(DcMotorSimple.Direction.FORWARD);
-            hardwareManager.elbowArmMotor.setPower(0.2);
-        } else {
-            hardwareManager.elbowArmMotor.setDirection(DcMotorSimple.Direction.REVERSE);
-            hardwareManager.elbowArmMotor.setPower(0.5);
-        }
+    private int bulkReadPhase;
+    private int commandsPhase;
 
-        double total_counts = COUNTS_PER_ANGLE * endPositionAngle; // Angle of movement desired
-        double motor_position = hardwareManager.elbowArmMotor.getCurrentPosition(); // Elbow's current position
-        double target_angle = (endPositionAngle >= 0)
-                ? (motor_position + total_counts)
-                : (motor_position - total_counts); // The desired end position of the motors angle
+    protected void createProfiler() {
+        profiler = new LoopProfiler("Auto");
+        bulkReadPhase = profiler.addPhase("Bulk Read");
+        commandsPhase = profiler.addPhase("Commands");
+    }
 
-        hardwareManager.elbowArmMotor.setPower(ELBOW_MOTOR_POWER);
-        while (hardwareManager.elbowArmMotor.getCurrentPosition() <= target_angle) {
-            //idle()
-        }
+    /**
+     * Adds the profiler lines to this cycle's telemetry, the numbers are only recomputed
+     * every ~500ms. Doesn't send it, {@link #run(Command)} does, once per cycle.
+     */
+    protected void reportProfiler() {
+        profiler.report(telemetry);
+    }
 
-        hardwareManager.elbowArmMotor.setPower(0);
+    //------------------------------------------------------------------------------------------------
+    // Init
+    //------------------------------------------------------------------------------------------------
+    protected InitReport initReport;
+
+    /** Starts the hardware init, the IMU keeps initializing in the background. */
+    protected void initializeHardware() {
+        initReport = new InitReport();
+        hardwareManager = new HardwareManager(hardwareMap, initReport);
+        robot = new HubRobotHardware(hardwareManager);
+        armController = new ElbowArmController(robot.arm());
+        trajectoryCache = new TrajectoryCache(TrajectoryCache.DEFAULT_DIRECTORY);
+        createProfiler();
     }
 
-    //---- Wrist Controls ----
-    protected void openClawServos(boolean isServoLeft){
-        if(isServoLeft){
-            hardwareManager.clawServoLeft.setPosition(0.5);
-            sleep(1000);
-            hardwareManager.clawServoLeft.setPosition(0);
-        } else {
-            hardwareManager.clawServoRight.setPosition(0.5);
-            sleep(1000);
-            hardwareManager.clawServoRight.setPosition(0);
-        }
+    /**
+     * Waits for everything still initializing in the background, then shows how long
+     * init took. Call right before waitForStart().
+     */
+    protected void awaitInitialization() {
+        boolean ready = hardwareManager.awaitReady(HARDWARE_INIT_TIMEOUT_MS);
+        initReport.finish();
+
+        if (!ready)
+            telemetry.addLine("WARNING: IMU not initialized, turns will be off");
+        initReport.addReportTo(telemetry);
+        if (compiledRoutine != null)
+            telemetry.addLine(compiledRoutine.toString());
+        telemetry.addLine(trajectoryCache.toString());
+        telemetry.update();
     }
 
     //------------------------------------------------------------------------------------------------
     // Inheritance
     //------------------------------------------------------------------------------------------------
-    protected abstract void runAutonomous();
+    /** Blocking, step by step. Only called if {@link #createRoutine()} returns null. */
+    protected void runAutonomous() {}
+
+    /**
+     * The whole autonomous as one command, built during init (motion profiles and all),
+     * so nothing is computed after the start. Return null to use {@link #runAutonomous()}.
+     */
+    protected Command createRoutine() {
+        return null;
+    }
 
     @Override
     public void runOpMode() {
-        hardwareManager = new HardwareManager(hardwareMap);
+        initializeHardware();
+        int routinePhase = initReport.begin("Routine");
+        Command routine = createRoutine();
+        initReport.end(routinePhase);
+        awaitInitialization();
         waitForStart();
-        runAutonomous();
+
+        hardwareManager.startSensorSampler();
+        try {
+            if (routine != null)
+                run(routine);
+            else
+                runAutonomous();
+        } finally {
+            hardwareManager.sensorSampler.stop();
+        }
     }
 }
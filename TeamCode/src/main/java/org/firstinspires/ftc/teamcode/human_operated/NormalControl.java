@@ -12,14 +12,26 @@ import org.firstinspires.ftc.teamcode.base.HumanOperated;
  * GamePad Control Schema:
  * (left_trigger) -> Upper Arm Down          (right_trigger) -> Lower Arm Down
  * (left_bumper)  -> Upper Arm Up            (right_bumper)  -> Lower Arm Up
- *     (d_pad_up) -> Claw Close            (X, Y, B, A) -> none
+ *     (d_pad_up) -> Claw Close            (Y) -> none
  *     (d_pad_down) -> Claw Open           (start) -> Launch Drone
  *              (left_stick)          (right_stick)
  *                   ║                     ╚ ▶ Forward, Backward, Rotate Left or Right;
  *                   ╚ ▶ For Omnidirectional Strafing;
+ *
+ * (X) -> Raise the arm, or lower it again, once per press (doesn't wait for it)
+ * (A), (B) -> Open the left, right claw while held, closes again on release
+ *
+ * Field-centric: the sticks move the robot relative to the driver, not to the robot.
+ * (back) -> Re-zero, "forward" becomes wherever the robot faces now.
  */
 @TeleOp(name = "Normal Control", group = "TeleOp")
 public class NormalControl extends HumanOperated {
+    /** Field-centric, BACK re-zeroes forward to wherever the robot faces */
+    @Override
+    protected boolean isFieldCentric() {
+        return true;
+    }
+
     @Override
     protected void processUserInput() {
         //useDefaultDroneLauncherControls();
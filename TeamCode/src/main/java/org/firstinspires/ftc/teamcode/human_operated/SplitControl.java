@@ -2,7 +2,7 @@ package org.firstinspires.ftc.teamcode.human_operated;
 
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 
-import org.firstinspires.ftc.teamcode.all_purpose.Misc;
+import org.firstinspires.ftc.teamcode.all_purpose.control.AxisShaper;
 import org.firstinspires.ftc.teamcode.base.HumanOperated;
 
 /**
@@ -18,6 +18,9 @@ import org.firstinspires.ftc.teamcode.base.HumanOperated;
  *     ▼        ╚ ▶ For Omnidirectional Strafing;
  *     None
  *
+ *    Robot-centric, the sticks move the robot relative to itself.
+ *    (Normal Control is the field-centric one.)
+ *
  * Arm GamePad Control Schema (RIGHT PORT, gamepad2)
  *
  *    (D_PAD)                    (Button X, Y, B, A)  ═ ▶ None
@@ -33,14 +36,25 @@ import org.firstinspires.ftc.teamcode.base.HumanOperated;
 public class SplitControl extends HumanOperated {
     private static final double JOYSTICK_TO_CLAW_MULTIPLIER = 0.5;
 
+    // Cubic like the drive, half speed, and no sudden jumps on the arm
+    private final AxisShaper topArmShaper    = new AxisShaper().setDeadband(0.05).setExpo(1).setScale(JOYSTICK_TO_CLAW_MULTIPLIER).setSlewRate(4);
+    private final AxisShaper bottomArmShaper = new AxisShaper().setDeadband(0.05).setExpo(1).setScale(JOYSTICK_TO_CLAW_MULTIPLIER).setSlewRate(4);
+
+    @Override
+    protected void resetShapers() {
+        super.resetShapers();
+        topArmShaper.reset();
+        bottomArmShaper.reset();
+    }
+
     @Override
     public void processUserInput() {
         useDefaultDroneLauncherControls();
         useDefaultMovementControls();
         useDefaultLiftControls();
 
-        topArmServoPower    = Misc.easeWithCubic(gamepad2.left_stick_y)  * JOYSTICK_TO_CLAW_MULTIPLIER;
-        bottomArmMotorPower = Misc.easeWithCubic(gamepad2.right_stick_y) * JOYSTICK_TO_CLAW_MULTIPLIER;
+        topArmServoPower    = topArmShaper.update(gamepad2.left_stick_y, loopSeconds);
+        bottomArmMotorPower = bottomArmShaper.update(gamepad2.right_stick_y, loopSeconds);
         clawServoPower = 0;
 
         // Claw
@@ -1,6 +1,7 @@
 package org.firstinspires.ftc.teamcode.self_driving;
 
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
+import org.firstinspires.ftc.teamcode.all_purpose.commands.Command;
 import org.firstinspires.ftc.teamcode.base.SelfDriving;
 
 /**
@@ -10,9 +11,7 @@ import org.firstinspires.ftc.teamcode.base.SelfDriving;
 @Autonomous(name = "Back Parking", group = "Autonomous")
 public class BackParking extends SelfDriving {
     @Override
-    protected void runAutonomous() {
-        move(1.2);
-        openClawServos(false);
-        openClawServos(true);
+    protected Command createRoutine() {
+        return compile(Routines.backParking());
     }
 }
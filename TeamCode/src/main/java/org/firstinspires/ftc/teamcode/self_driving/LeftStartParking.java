@@ -1,6 +1,7 @@
 package org.firstinspires.ftc.teamcode.self_driving;
 
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
+import org.firstinspires.ftc.teamcode.all_purpose.commands.Command;
 import org.firstinspires.ftc.teamcode.base.SelfDriving;
 
 /**
@@ -13,11 +14,7 @@ import org.firstinspires.ftc.teamcode.base.SelfDriving;
 @Autonomous(name = "Left Start Parking", group = "Autonomous")
 public class LeftStartParking extends SelfDriving {
     @Override
-    protected void runAutonomous() {
-        move(1.4);
-        rotate(-90);
-        move(2.6);
-        rotate(-45);
-        //openClaw();
+    protected Command createRoutine() {
+        return compile(Routines.leftStartParking());
     }
 }
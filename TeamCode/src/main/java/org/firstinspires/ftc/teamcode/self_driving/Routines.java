@@ -0,0 +1,51 @@
+package org.firstinspires.ftc.teamcode.self_driving;
+
+import org.firstinspires.ftc.teamcode.all_purpose.RobotConstants;
+import org.firstinspires.ftc.teamcode.all_purpose.routines.Routine;
+
+/**
+ * The routine of every autonomous in this package. Kept out of the OpModes, in plain Java,
+ * so the desktop TrajectoryCacheTool (Benchmarks) compiles exactly the same routines,
+ * and pre-generates exactly the same trajectory files, as the robot would.
+ */
+public final class Routines {
+    private Routines() {}
+
+    /** See {@link BackParking} */
+    public static Routine backParking() {
+        return new Routine()
+                .drive(1.2)
+                .openClaw(Routine.Side.RIGHT)
+                .waitMs(RobotConstants.CLAW_HOLD_OPEN_MS)
+                .closeClaw(Routine.Side.RIGHT)
+                .openClaw(Routine.Side.LEFT)
+                .waitMs(RobotConstants.CLAW_HOLD_OPEN_MS)
+                .closeClaw(Routine.Side.LEFT);
+    }
+
+    /** See {@link LeftStartParking} */
+    public static Routine leftStartParking() {
+        // Forward 1.4 m, then 2.6 m to the left, in one sweep. The corner is rounded off
+        // within 0.3 m of it, and the robot turns to face the new way while driving.
+        return new Routine()
+                .follow(90,
+                        0, 0,
+                        1.1, 0,
+                        1.4, 0.3,
+                        1.4, 2.6)
+                .turnTo(135); //.openClaw(..)
+    }
+
+    /** See {@link RightStartParking} */
+    public static Routine rightStartParking() {
+        // Forward 1.4 m, then 2.6 m to the right, in one sweep. The corner is rounded off
+        // within 0.3 m of it, and the robot turns to face the new way while driving.
+        return new Routine()
+                .follow(-90,
+                        0, 0,
+                        1.1, 0,
+                        1.4, -0.3,
+                        1.4, -2.6)
+                .turnTo(-135); //.openClaw(..)
+    }
+}
@@ -2,8 +2,8 @@ package org.firstinspires.ftc.teamcode.tests;
 
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 
-import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
-import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+import org.firstinspires.ftc.teamcode.all_purpose.motion.MecanumOdometry;
+import org.firstinspires.ftc.teamcode.all_purpose.sensors.SensorSnapshot;
 import org.firstinspires.ftc.teamcode.base.HumanOperated;
 
 /**
@@ -14,35 +14,63 @@ public class HardwareDebug extends HumanOperated {
     @Override
     protected void processUserInput() {} // .. Required
 
+    private final SensorSnapshot sensors = new SensorSnapshot();
+
     @Override
     public void start() {
-        hardwareManager.imu.resetYaw();
+        hardwareManager.startSensorSampler();
+        hardwareManager.resetYaw();
         hardwareManager.resetWheelEncoders();
     }
 
     @Override
     public void loop() {
+        hardwareManager.refresh();
+
         // Operator Input
         telemetry
                 .addData("GamePad1", gamepad1.id < 0 ? "Not Plugged In." : gamepad1.toString())
                 .addData("GamePad2", gamepad2.id < 0 ? "Not Plugged In." : gamepad2.toString());
 
-        YawPitchRollAngles orientation = hardwareManager.imu.getRobotYawPitchRollAngles();
+        // Sensors (Sampled in the background)
+        if (hardwareManager.readSensors(sensors)) {
+            telemetry
+                    .addData("Yaw",     "%.3f°", sensors.getYaw())
+                    .addData("Roll",    "%.3f°", sensors.getRoll())
+                    .addData("Pitch",   "%.3f°", sensors.getPitch())
+                    .addData("Voltage", "%.3f Volts (Filtered %.3f, x%.3f)",
+                            sensors.getVoltage(),
+                            hardwareManager.voltageService.getVoltage(),
+                            hardwareManager.voltageService.getCompensation())
+                    .addData("Sample Age", "%.2f ms", sensors.getAgeNanos() / 1e6)
+                    .addData("Sample Read Time", "%.2f ms",
+                            hardwareManager.sensorSampler.getLastSampleDurationNanos() / 1e6);
+        } else {
+            telemetry.addLine("Waiting for first sensor sample..");
+        }
+
+        // Hardware Components
+        telemetry
+                .addData("Front-Left Wheel",  hardwareManager.getWheelCounts(0))
+                .addData("Front-Right Wheel", hardwareManager.getWheelCounts(1))
+                .addData("Back-Left Wheel",   hardwareManager.getWheelCounts(2))
+                .addData("Back-Right Wheel",  hardwareManager.getWheelCounts(3))
+                .addData("Bottom Arm Motor",  hardwareManager.getElbowArmCounts());
 
-        // Sensors
+        // Odometry
+        MecanumOdometry odometry = hardwareManager.odometry;
         telemetry
-                .addData("Yaw",     "%.3f°", orientation.getYaw(AngleUnit.DEGREES))
-                .addData("Roll",    "%.3f°", orientation.getRoll(AngleUnit.DEGREES))
-                .addData("Pitch",   "%.3f°", orientation.getPitch(AngleUnit.DEGREES))
-                .addData("Voltage", "%.3f Volts", hardwareManager.voltageSensor.getVoltage());
+                .addData("Pose", "x %.3f m, y %.3f m, %.1f°",
+                        odometry.getX(), odometry.getY(), Math.toDegrees(odometry.getHeading()))
+                .addData("Field Velocity", "x %.2f m/s, y %.2f m/s, %.1f°/s",
+                        odometry.getVelocityX(), odometry.getVelocityY(), Math.toDegrees(odometry.getAngularVelocity()));
 
-        // Hardware Components
+        // Velocities, estimated vs measured by the hub (counts/s)
         telemetry
-                .addData("Front-Left Wheel",  hardwareManager.getFrontLeftWheel().getCurrentPosition())
-                .addData("Front-Right Wheel", hardwareManager.getFrontRightWheel().getCurrentPosition())
-                .addData("Back-Left Wheel",   hardwareManager.getBackLeftWheel().getCurrentPosition())
-                .addData("Back-Right Wheel",  hardwareManager.getBackRightWheel().getCurrentPosition())
-                .addData("Bottom Arm Motor",  hardwareManager.elbowArmMotor.getCurrentPosition());
+                .addData("Front-Left Speed",  "%.0f / %.0f", hardwareManager.getWheelVelocityEstimate(0), hardwareManager.getWheelVelocity(0))
+                .addData("Front-Right Speed", "%.0f / %.0f", hardwareManager.getWheelVelocityEstimate(1), hardwareManager.getWheelVelocity(1))
+                .addData("Back-Left Speed",   "%.0f / %.0f", hardwareManager.getWheelVelocityEstimate(2), hardwareManager.getWheelVelocity(2))
+                .addData("Back-Right Speed",  "%.0f / %.0f", hardwareManager.getWheelVelocityEstimate(3), hardwareManager.getWheelVelocity(3));
 
         telemetry.update();
     }
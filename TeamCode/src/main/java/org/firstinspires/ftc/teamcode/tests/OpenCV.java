@@ -4,23 +4,37 @@ import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 
 import org.firstinspires.ftc.teamcode.all_purpose.ComputerVision;
 import org.firstinspires.ftc.teamcode.all_purpose.HardwareManager;
+import org.firstinspires.ftc.teamcode.all_purpose.InitReport;
+import org.firstinspires.ftc.teamcode.all_purpose.LoopProfiler;
+import org.firstinspires.ftc.teamcode.all_purpose.hardware.HubRobotHardware;
+import org.firstinspires.ftc.teamcode.all_purpose.processors.ColorDetectionProcessor;
 import org.firstinspires.ftc.teamcode.base.SelfDriving;
 
 @Autonomous(name = "OpenCV Test", group = "Test")
 public class OpenCV extends SelfDriving {
+    private static final long VISION_INIT_TIMEOUT_MS = 5000;
+
     ComputerVision computerVision;
 
     @Override
     public void runOpMode() {
-        hardwareManager = new HardwareManager(hardwareMap);
+        // Camera first, it starts streaming in the background while the hardware initializes
+        initReport = new InitReport();
         computerVision = new ComputerVision(hardwareMap);
+        // Live Preview Only works before the loop
+        computerVision.initializeAsync(ComputerVision.Processors.PIXEL_COLOR, true, initReport);
+
+        hardwareManager = new HardwareManager(hardwareMap, initReport);
+        robot = new HubRobotHardware(hardwareManager);
+        createProfiler();
 
         telemetry.addLine("Open the 3 Dots on the Top-Right.");
         telemetry.addLine("Then Select 'Camera Stream'");
-        telemetry.update();
-
-        // Live Preview Only works before the loop
-        computerVision.initialize(ComputerVision.Processors.PIXEL_COLOR ,true);
+        if (!computerVision.awaitReady(VISION_INIT_TIMEOUT_MS))
+            telemetry.addLine("WARNING: Camera not streaming");
+        if (computerVision.getStartupError() != null)
+            telemetry.addLine("Vision failed: " + computerVision.getStartupError().getMessage());
+        awaitInitialization(); // Sends the telemetry
 
         waitForStart();
         runAutonomous();
@@ -29,6 +43,19 @@ public class OpenCV extends SelfDriving {
     @Override
     protected void runAutonomous() {
         while (opModeIsActive()) {
+            // Only the vision pipeline is doing anything here. Null while it's still starting (or if it failed).
+            ColorDetectionProcessor processor = computerVision.colorDetectionProcessor;
+            if (processor == null) {
+                idle();
+                continue;
+            }
+
+            LoopProfiler visionProfiler = processor.getProfiler();
+            if (visionProfiler.refreshReport()) {
+                visionProfiler.addReportTo(telemetry);
+                telemetry.update();
+            }
+
             idle();
         }
 
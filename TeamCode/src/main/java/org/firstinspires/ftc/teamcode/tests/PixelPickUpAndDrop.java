@@ -2,17 +2,25 @@ package org.firstinspires.ftc.teamcode.tests;
 
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 
+import org.firstinspires.ftc.teamcode.all_purpose.commands.Command;
+import org.firstinspires.ftc.teamcode.all_purpose.routines.Routine;
 import org.firstinspires.ftc.teamcode.base.SelfDriving;
 
 @Autonomous(name = "Pick up and drop", group = "Autonomous")
 public class PixelPickUpAndDrop extends SelfDriving {
     @Override
-    protected void runAutonomous(){
-        moveElbowMotor(-80);
-        sleep(2000);
-        openClawServos(false);
-        openClawServos(true);
-        sleep(2000);
-        moveElbowMotor(80);
+    protected Command createRoutine() {
+        return compile(new Routine()
+                .armBy(80)
+                .waitMs(2000)
+                .openClaw(Routine.Side.RIGHT)
+                .waitMs(CLAW_HOLD_OPEN_MS)
+                .closeClaw(Routine.Side.RIGHT)
+                .openClaw(Routine.Side.LEFT)
+                .waitMs(CLAW_HOLD_OPEN_MS)
+                .closeClaw(Routine.Side.LEFT)
+                .waitMs(2000)
+                .armBy(-80)
+        );
     }
 }
@@ -1,15 +1,17 @@
 package org.firstinspires.ftc.teamcode.tests;
 
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
-import com.qualcomm.robotcore.hardware.DcMotorSimple;
 import com.qualcomm.robotcore.hardware.CRServoImplEx;
 import com.qualcomm.robotcore.util.ElapsedTime;
 import java.util.ArrayList;
 
 import android.util.Range;
 
+import org.firstinspires.ftc.teamcode.all_purpose.GamepadEvents;
 import org.firstinspires.ftc.teamcode.all_purpose.HardwareManager;
 import org.firstinspires.ftc.teamcode.all_purpose.Misc;
+import org.firstinspires.ftc.teamcode.all_purpose.control.ElbowArmController;
+import org.firstinspires.ftc.teamcode.all_purpose.hardware.HubRobotHardware;
 
 
 // danny's recording test
@@ -141,51 +143,25 @@ public abstract class RecordingTest extends OpMode {
     //------------------------------------------------------------------------------------------------
     // nEw ArM cONtrOls (experimental)
     //------------------------------------------------------------------------------------------------
-    protected final double COUNTS_PER_ELBOW_REVOLUTION = 1440;
-    protected final double COUNTS_PER_ANGLE = COUNTS_PER_ELBOW_REVOLUTION / 360.0; // DEGREES
-    protected final double ELBOW_MOTOR_POWER = 0.5;
+    /** Real arm degrees (gear ratio included), up on the first press then alternating */
+    protected static final double ARM_STEP_DEGREES = 45;
     protected boolean isUp = false;
-    protected void moveElbowMotors(double endPositionAngle) {
-
-        /*
-         * This is a copy of the moveElbowMotors() from selfDriving with a very very
-         * experimental way of changing the direction of the motor
-         * */
-        if(endPositionAngle >= 0) {
-            hardwareManager.elbowArmMotor.setDirection(DcMotorSimple.Direction.FORWARD);
-        } else {
-            hardwareManager.elbowArmMotor.setDirection(DcMotorSimple.Direction.REVERSE);
-        }
-
-        double total_counts = COUNTS_PER_ANGLE * endPositionAngle; // Angle of movement desired
-        double motor_position = hardwareManager.elbowArmMotor.getCurrentPosition(); // Elbow's current position
-        double target_angle = (endPositionAngle >= 0)
-                ? (motor_position + total_counts)
-                : (motor_position - total_counts); // The desired end position of the motors angle
+    protected final GamepadEvents gamepad1Events = new GamepadEvents();
 
-        hardwareManager.elbowArmMotor.setPower(ELBOW_MOTOR_POWER);
-        while (hardwareManager.elbowArmMotor.getCurrentPosition() <= target_angle) {
-            //idle()
-            ;        }
+    /** Holds the arm wherever it was last sent, updated every loop() */
+    protected ElbowArmController armController;
 
-        hardwareManager.elbowArmMotor.setPower(0);
+    /** Moves the arm by the angle (positive = up) from its current target. Doesn't wait for it. */
+    protected void moveElbowMotors(double angle) {
+        armController.moveBy(angle);
     }
+
     protected void useSimpleArmControls(){
-        if (!hardwareManager.elbowArmMotor.isBusy()) {
-            if(gamepad1.x){
-                telemetry.update();
-                if(!isUp){
-                    moveElbowMotors(-45);
-                    isUp = false;
-                    // if x is pressed then arm moves down by 45 degrees
-                }else{
-                    moveElbowMotors(45);
-                    isUp = true;
-                    // if y is pressed then arm moves up by 45 degrees
-                }
-            }
+        // Once per press, the arm moves on its own in loop() while the robot keeps driving
+        if (gamepad1Events.wasPressed(GamepadEvents.X)) {
+            moveElbowMotors(isUp ? -ARM_STEP_DEGREES : ARM_STEP_DEGREES);
+            isUp = !isUp;
         }
-
     }
     protected void armControlsOverride(){
 
@@ -218,6 +194,8 @@ public abstract class RecordingTest extends OpMode {
 
     @Override
     public void loop() {
+        hardwareManager.refresh();
+        gamepad1Events.update(gamepad1);
         processUserInput();
 
         hardwareManager.getFrontLeftWheel().setPower(WHEELS_POWER_RANGE.clamp(frontLeftWheelPower));
@@ -226,6 +204,7 @@ public abstract class RecordingTest extends OpMode {
         hardwareManager.getBackRightWheel().setPower(WHEELS_POWER_RANGE.clamp(backRightWheelPower));
 
         hardwareManager.liftMotor.setPower(LIFT_POWER_RANGE.clamp(liftMotorPower));
+        armController.update();
 
         //if (unhook)
             //hardwareManager.droneLauncherHook.setPosition(1);
@@ -234,6 +213,7 @@ public abstract class RecordingTest extends OpMode {
     @Override
     public void init() {
         hardwareManager = new HardwareManager(hardwareMap);
+        armController = new ElbowArmController(new HubRobotHardware(hardwareManager).arm());
     }
 
     @Override